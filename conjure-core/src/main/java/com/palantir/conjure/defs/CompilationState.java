@@ -0,0 +1,42 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import java.util.Map;
+import org.immutables.value.Value;
+
+/** The state recorded by an {@link IncrementalCompiler} after a successful compile. */
+@JsonDeserialize(as = ImmutableCompilationState.class)
+@JsonSerialize(as = ImmutableCompilationState.class)
+@Value.Immutable
+@ConjureImmutablesStyle
+interface CompilationState {
+
+    /** The version of the compiler which recorded this state; the state of any other version is ignored. */
+    String compilerVersion();
+
+    /** Every source file of the compile and every file they import transitively, by absolute path. */
+    Map<String, SourceFileState> files();
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableCompilationState.Builder {}
+}
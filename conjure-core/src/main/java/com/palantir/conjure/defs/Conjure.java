@@ -16,14 +16,15 @@
 
 package com.palantir.conjure.defs;
 
+import com.palantir.conjure.defs.validator.ValidationMode;
 import com.palantir.conjure.parser.ConjureParser;
 import com.palantir.conjure.parser.ConjureSourceFile;
 import com.palantir.conjure.parser.NormalizeDefinition;
+import com.palantir.conjure.parser.ParseCache;
 import com.palantir.conjure.spec.ConjureDefinition;
 import java.io.File;
 import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public final class Conjure {
     public static final Integer SUPPORTED_IR_VERSION = 1;
@@ -34,8 +35,25 @@ public final class Conjure {
      * Deserializes {@link ConjureDefinition} from their YAML representations in the given files.
      */
     public static ConjureDefinition parse(Collection<File> files) {
-        List<ConjureSourceFile> sourceFiles = files.stream().map(ConjureParser::parse).collect(Collectors.toList());
-        ConjureDefinition ir = ConjureParserUtils.parseConjureDef(sourceFiles);
+        return parse(files, ValidationMode.SEQUENTIAL);
+    }
+
+    /**
+     * Deserializes {@link ConjureDefinition} from their YAML representations in the given files, running the
+     * validation of endpoints, type definitions and errors in the given mode.
+     */
+    public static ConjureDefinition parse(Collection<File> files, ValidationMode validationMode) {
+        return parse(files, validationMode, ParseCache.disabled());
+    }
+
+    /**
+     * As {@link #parse(Collection, ValidationMode)}, but source files are looked up in the given cache before they are
+     * parsed.
+     */
+    public static ConjureDefinition parse(
+            Collection<File> files, ValidationMode validationMode, ParseCache parseCache) {
+        List<ConjureSourceFile> sourceFiles = ConjureParser.parse(files, parseCache);
+        ConjureDefinition ir = ConjureParserUtils.parseConjureDef(sourceFiles, validationMode);
         return NormalizeDefinition.normalize(ir);
     }
 }
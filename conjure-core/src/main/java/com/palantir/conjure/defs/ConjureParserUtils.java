@@ -16,6 +16,7 @@
 
 package com.palantir.conjure.defs;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.palantir.conjure.defs.ConjureTypeParserVisitor.ReferenceTypeResolver;
 import com.palantir.conjure.defs.validator.ConjureDefinitionValidator;
@@ -31,6 +32,8 @@ import com.palantir.conjure.defs.validator.PackageValidator;
 import com.palantir.conjure.defs.validator.ServiceDefinitionValidator;
 import com.palantir.conjure.defs.validator.TypeNameValidator;
 import com.palantir.conjure.defs.validator.UnionDefinitionValidator;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.defs.validator.ValidationUnits;
 import com.palantir.conjure.parser.ConjureSourceFile;
 import com.palantir.conjure.parser.services.ParameterName;
 import com.palantir.conjure.parser.services.PathString;
@@ -74,7 +77,9 @@ import com.palantir.conjure.visitor.TypeDefinitionVisitor;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -109,22 +114,37 @@ public final class ConjureParserUtils {
             TypeName name,
             com.palantir.conjure.parser.types.complex.ErrorTypeDefinition def,
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+        return parseErrorType(name, def, typeResolver, ValidationUnits.sequential());
+    }
+
+    public static ErrorDefinition parseErrorType(
+            TypeName name,
+            com.palantir.conjure.parser.types.complex.ErrorTypeDefinition def,
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         ErrorDefinition errorType = ErrorDefinition.builder()
                 .errorName(name)
                 .namespace(ErrorNamespace.of(def.namespace().name()))
                 .code(def.code().asSpecErrorCode())
-                .safeArgs(parseField(def.safeArgs(), typeResolver))
-                .unsafeArgs(parseField(def.unsafeArgs(), typeResolver))
+                .safeArgs(parseField(def.safeArgs(), typeResolver, validation))
+                .unsafeArgs(parseField(def.unsafeArgs(), typeResolver, validation))
                 .docs(def.docs().map(Documentation::of))
                 .build();
 
-        ErrorDefinitionValidator.validate(errorType);
+        validation.add(() -> ErrorDefinitionValidator.validate(errorType));
         return errorType;
     }
 
     public static TypeDefinition parseEnumType(
             TypeName name,
             com.palantir.conjure.parser.types.complex.EnumTypeDefinition def) {
+        return parseEnumType(name, def, ValidationUnits.sequential());
+    }
+
+    public static TypeDefinition parseEnumType(
+            TypeName name,
+            com.palantir.conjure.parser.types.complex.EnumTypeDefinition def,
+            ValidationUnits validation) {
 
         EnumDefinition enumType = EnumDefinition.builder()
                 .typeName(name)
@@ -132,7 +152,7 @@ public final class ConjureParserUtils {
                 .docs(def.docs().map(Documentation::of))
                 .build();
 
-        EnumDefinitionValidator.validateAll(enumType);
+        validation.add(() -> EnumDefinitionValidator.validateAll(enumType));
         return TypeDefinition.enum_(enumType);
     }
 
@@ -140,13 +160,21 @@ public final class ConjureParserUtils {
             TypeName name,
             com.palantir.conjure.parser.types.complex.UnionTypeDefinition def,
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+        return parseUnionType(name, def, typeResolver, ValidationUnits.sequential());
+    }
+
+    public static TypeDefinition parseUnionType(
+            TypeName name,
+            com.palantir.conjure.parser.types.complex.UnionTypeDefinition def,
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         UnionDefinition unionType = UnionDefinition.builder()
                 .typeName(name)
-                .union(parseField(def.union(), typeResolver))
+                .union(parseField(def.union(), typeResolver, validation))
                 .docs(def.docs().map(Documentation::of))
                 .build();
 
-        UnionDefinitionValidator.validateAll(unionType);
+        validation.add(() -> UnionDefinitionValidator.validateAll(unionType));
         return TypeDefinition.union(unionType);
     }
 
@@ -154,13 +182,21 @@ public final class ConjureParserUtils {
             TypeName name,
             com.palantir.conjure.parser.types.complex.ObjectTypeDefinition def,
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+        return parseObjectType(name, def, typeResolver, ValidationUnits.sequential());
+    }
+
+    public static TypeDefinition parseObjectType(
+            TypeName name,
+            com.palantir.conjure.parser.types.complex.ObjectTypeDefinition def,
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         ObjectDefinition objectType = ObjectDefinition.builder()
                 .typeName(name)
-                .fields(parseField(def.fields(), typeResolver))
+                .fields(parseField(def.fields(), typeResolver, validation))
                 .docs(def.docs().map(Documentation::of))
                 .build();
 
-        ObjectDefinitionValidator.validate(objectType);
+        validation.add(() -> ObjectDefinitionValidator.validate(objectType));
         return TypeDefinition.object(objectType);
     }
 
@@ -170,7 +206,7 @@ public final class ConjureParserUtils {
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
         return TypeDefinition.alias(AliasDefinition.builder()
                 .typeName(name)
-                .alias(def.alias().visit(new ConjureTypeParserVisitor(typeResolver)))
+                .alias(def.alias().visit(typeResolver.typeParser()))
                 .docs(def.docs().map(Documentation::of))
                 .build());
     }
@@ -190,68 +226,135 @@ public final class ConjureParserUtils {
     }
 
     static ConjureDefinition parseConjureDef(Collection<ConjureSourceFile> parsedDefs) {
-        ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
-        ImmutableList.Builder<ErrorDefinition> errorsBuilder = ImmutableList.builder();
-        ImmutableList.Builder<TypeDefinition> typesBuilder = ImmutableList.builder();
+        return parseConjureDef(parsedDefs, ValidationMode.SEQUENTIAL);
+    }
+
+    static ConjureDefinition parseConjureDef(Collection<ConjureSourceFile> parsedDefs, ValidationMode validationMode) {
+        ValidationUnits validation = ValidationUnits.create(validationMode);
+        ConjureDefinition definition = mergeFragments(parseFragments(parsedDefs, validation));
 
+        validation.validate();
+        ConjureDefinitionValidator.validateAll(definition);
+        return definition;
+    }
+
+    /**
+     * Converts each of the given source files into a fragment of the definition holding the types, errors and
+     * services it defines, in the order given. A fragment only depends on its source file and the files it imports,
+     * so fragments of different compiles can be merged. The validation of the whole definition is left to the caller.
+     */
+    static List<ConjureDefinition> parseFragments(
+            Collection<ConjureSourceFile> parsedDefs, ValidationUnits validation) {
+        SymbolTable symbolTable = SymbolTable.build(parsedDefs);
+        ImportedObjectsCache importedObjectsCache = new ImportedObjectsCache(symbolTable, validation);
+
+        List<ConjureDefinition> fragments = new ArrayList<>(parsedDefs.size());
         parsedDefs.forEach(parsed -> {
-            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver =
-                    new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(parsed.types());
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver = symbolTable.resolver(parsed);
 
             // Resolve objects first, so we can use them in service validations
-            Map<TypeName, TypeDefinition> objects = parseObjects(parsed.types(), typeResolver);
-            Map<TypeName, TypeDefinition> importedObjects = parseImportObjects(parsed.types().conjureImports());
+            Map<TypeName, TypeDefinition> objects = importedObjectsCache.localObjects(parsed);
+            Map<TypeName, TypeDefinition> importedObjects =
+                    importedObjectsCache.importedObjects(parsed.types().conjureImports());
             Map<TypeName, TypeDefinition> allObjects = new HashMap<>();
             allObjects.putAll(objects);
             allObjects.putAll(importedObjects);
 
             DealiasingTypeVisitor dealiasingVisitor = new DealiasingTypeVisitor(allObjects);
 
+            ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
             parsed.services().forEach((serviceName, service) -> {
                 servicesBuilder.add(
                         parseService(
                                 service,
                                 TypeName.of(serviceName.name(), parseConjurePackage(service.conjurePackage())),
                                 typeResolver,
-                                dealiasingVisitor));
+                                dealiasingVisitor,
+                                validation));
             });
 
-            typesBuilder.addAll(objects.values());
-            errorsBuilder.addAll(parseErrors(parsed.types().definitions(), typeResolver));
+            fragments.add(ConjureDefinition.builder()
+                    .version(Conjure.SUPPORTED_IR_VERSION)
+                    .types(ImmutableList.copyOf(objects.values()))
+                    .errors(parseErrors(parsed.types().definitions(), typeResolver, validation))
+                    .services(servicesBuilder.build())
+                    .build());
         });
+        return fragments;
+    }
 
-        ConjureDefinition definition = ConjureDefinition.builder()
+    /** Concatenates the types, errors and services of the given fragments, in order. */
+    static ConjureDefinition mergeFragments(List<ConjureDefinition> fragments) {
+        ImmutableList.Builder<ServiceDefinition> servicesBuilder = ImmutableList.builder();
+        ImmutableList.Builder<ErrorDefinition> errorsBuilder = ImmutableList.builder();
+        ImmutableList.Builder<TypeDefinition> typesBuilder = ImmutableList.builder();
+        fragments.forEach(fragment -> {
+            typesBuilder.addAll(fragment.getTypes());
+            errorsBuilder.addAll(fragment.getErrors());
+            servicesBuilder.addAll(fragment.getServices());
+        });
+        return ConjureDefinition.builder()
                 .version(Conjure.SUPPORTED_IR_VERSION)
                 .types(typesBuilder.build())
                 .errors(errorsBuilder.build())
                 .services(servicesBuilder.build())
                 .build();
-
-        ConjureDefinitionValidator.validateAll(definition);
-        return definition;
     }
 
-    /*
-     * Recursively resolve all imported types
+    /**
+     * Converts the types of every {@link ConjureSourceFile} at most once per compile. Source files are keyed by
+     * identity: {@link com.palantir.conjure.parser.ConjureParser} hands out a single instance per file, so a file
+     * imported by several others (or also compiled itself) is only converted to IR once and the resulting maps are
+     * shared by all importers.
      */
-    private static Map<TypeName, TypeDefinition> parseImportObjects(Map<Namespace, ConjureImports> conjureImports) {
-        Map<TypeName, TypeDefinition> allDefinitions = new HashMap<>();
-        conjureImports.values().forEach(conjureImport -> {
-            ConjureSourceFile conjureDef = conjureImport.conjure();
-            ReferenceTypeResolver importTypeResolver =
-                    new ConjureTypeParserVisitor.ByParsedRepresentationTypeNameResolver(conjureDef.types());
-            allDefinitions.putAll(parseImportObjects(conjureDef.types().conjureImports()));
-            allDefinitions.putAll(parseObjects(conjureDef.types(), importTypeResolver));
-        });
+    @VisibleForTesting
+    static final class ImportedObjectsCache {
+        private final SymbolTable symbolTable;
+        private final ValidationUnits validation;
+        private final Map<ConjureSourceFile, Map<TypeName, TypeDefinition>> localObjects = new IdentityHashMap<>();
+        private final Map<ConjureSourceFile, Map<TypeName, TypeDefinition>> transitiveObjects =
+                new IdentityHashMap<>();
+
+        ImportedObjectsCache(SymbolTable symbolTable, ValidationUnits validation) {
+            this.symbolTable = symbolTable;
+            this.validation = validation;
+        }
+
+        Map<TypeName, TypeDefinition> localObjects(ConjureSourceFile conjureDef) {
+            return localObjects.computeIfAbsent(conjureDef, def -> Collections.unmodifiableMap(
+                    parseObjects(def.types(), symbolTable.resolver(def), validation)));
+        }
 
-        return allDefinitions;
+        /*
+         * Recursively resolve all imported types
+         */
+        Map<TypeName, TypeDefinition> importedObjects(Map<Namespace, ConjureImports> conjureImports) {
+            Map<TypeName, TypeDefinition> allDefinitions = new HashMap<>();
+            conjureImports.values().forEach(conjureImport ->
+                    allDefinitions.putAll(transitiveObjects(conjureImport.conjure())));
+            return allDefinitions;
+        }
+
+        private Map<TypeName, TypeDefinition> transitiveObjects(ConjureSourceFile conjureDef) {
+            // Don't use computeIfAbsent, see JDK-8071667: collecting the objects of imports recurses into this cache.
+            Map<TypeName, TypeDefinition> result = transitiveObjects.get(conjureDef);
+            if (result == null) {
+                Map<TypeName, TypeDefinition> allDefinitions = new HashMap<>();
+                allDefinitions.putAll(importedObjects(conjureDef.types().conjureImports()));
+                allDefinitions.putAll(localObjects(conjureDef));
+                result = Collections.unmodifiableMap(allDefinitions);
+                transitiveObjects.put(conjureDef, result);
+            }
+            return result;
+        }
     }
 
     static ServiceDefinition parseService(
             com.palantir.conjure.parser.services.ServiceDefinition parsed,
             TypeName serviceName,
             ReferenceTypeResolver typeResolver,
-            DealiasingTypeVisitor dealiasingVisitor) {
+            DealiasingTypeVisitor dealiasingVisitor,
+            ValidationUnits validation) {
         List<EndpointDefinition> endpoints = new ArrayList<>();
         parsed.endpoints().forEach((name, def) -> endpoints.add(
                 ConjureParserUtils.parseEndpoint(
@@ -260,20 +363,22 @@ public final class ConjureParserUtils {
                         parsed.basePath(),
                         parseAuthType(parsed.defaultAuth()),
                         typeResolver,
-                        dealiasingVisitor)));
+                        dealiasingVisitor,
+                        validation)));
         ServiceDefinition service = ServiceDefinition.builder()
                 .serviceName(serviceName)
                 .docs(parsed.docs().map(Documentation::of))
                 .addAllEndpoints(endpoints)
                 .build();
 
-        ServiceDefinitionValidator.validateAll(service);
+        validation.add(() -> ServiceDefinitionValidator.validateAll(service));
         return service;
     }
 
     static Map<TypeName, TypeDefinition> parseObjects(
             com.palantir.conjure.parser.types.TypesDefinition parsed,
-            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         Optional<String> defaultPackage =
                 parsed.definitions().defaultConjurePackage().map(ConjurePackage::name);
 
@@ -281,19 +386,21 @@ public final class ConjureParserUtils {
         // validates its type.
         return parsed.definitions().objects().entrySet().stream()
                         .map(entry -> entry.getValue().visit(
-                                new TypeDefinitionParserVisitor(entry.getKey().name(), defaultPackage, typeResolver)))
+                                new TypeDefinitionParserVisitor(
+                                        entry.getKey().name(), defaultPackage, typeResolver, validation)))
                         .collect(Collectors.toMap(td -> td.accept(TypeDefinitionVisitor.TYPE_NAME), td -> td));
     }
 
     static List<ErrorDefinition> parseErrors(
             NamedTypesDefinition defs,
-            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         Optional<String> defaultPackage = defs.defaultConjurePackage().map(p -> p.name());
         ImmutableList.Builder<ErrorDefinition> errorsBuidler = ImmutableList.builder();
         errorsBuidler.addAll(defs.errors().entrySet().stream().map(entry -> {
             TypeName typeName = TypeName.of(
                     entry.getKey().name(), parsePackageOrElseThrow(entry.getValue().conjurePackage(), defaultPackage));
-            return parseErrorType(typeName, entry.getValue(), typeResolver);
+            return parseErrorType(typeName, entry.getValue(), typeResolver, validation);
         }).collect(Collectors.toList()));
         return errorsBuidler.build();
     }
@@ -312,13 +419,14 @@ public final class ConjureParserUtils {
     static List<FieldDefinition> parseField(
             Map<com.palantir.conjure.parser.types.names.FieldName,
                     com.palantir.conjure.parser.types.complex.FieldDefinition> def,
-            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         return def.entrySet().stream().map(entry -> {
             FieldDefinition fieldDefinition = FieldDefinition.builder()
                     .fieldName(parseFieldName(entry.getKey()))
-                    .type(entry.getValue().type().visit(new ConjureTypeParserVisitor(typeResolver)))
+                    .type(entry.getValue().type().visit(typeResolver.typeParser()))
                     .docs(entry.getValue().docs().map(Documentation::of)).build();
-            FieldDefinitionValidator.validate(fieldDefinition);
+            validation.add(() -> FieldDefinitionValidator.validate(fieldDefinition));
             return fieldDefinition;
         }).collect(Collectors.toList());
     }
@@ -336,7 +444,8 @@ public final class ConjureParserUtils {
             PathString basePath,
             Optional<AuthType> defaultAuth,
             ReferenceTypeResolver typeResolver,
-            DealiasingTypeVisitor dealiasingVisitor) {
+            DealiasingTypeVisitor dealiasingVisitor,
+            ValidationUnits validation) {
 
         HttpPath httpPath = parseHttpPath(def, basePath);
         EndpointDefinition endpoint = EndpointDefinition.builder()
@@ -346,12 +455,12 @@ public final class ConjureParserUtils {
                 .auth(def.auth().map(ConjureParserUtils::parseAuthType).orElse(defaultAuth))
                 .args(parseArgs(def.args(), httpPath, typeResolver))
                 .markers(parseMarkers(def.markers(), typeResolver))
-                .returns(def.returns().map(t -> t.visit(new ConjureTypeParserVisitor(typeResolver))))
+                .returns(def.returns().map(t -> t.visit(typeResolver.typeParser())))
                 .docs(def.docs().map(Documentation::of))
                 .deprecated(def.deprecated().map(Documentation::of))
                 .build();
 
-        EndpointDefinitionValidator.validateAll(endpoint, dealiasingVisitor);
+        validation.add(() -> EndpointDefinitionValidator.validateAll(endpoint, dealiasingVisitor));
         return endpoint;
     }
 
@@ -383,14 +492,15 @@ public final class ConjureParserUtils {
             HttpPath httpPath,
             ReferenceTypeResolver typeResolver) {
         ImmutableList.Builder<ArgumentDefinition> resultBuilder = ImmutableList.builder();
+        Set<ArgumentName> pathArgs = HttpPathValidator.pathArgs(httpPath.get());
         for (Map.Entry<com.palantir.conjure.parser.services.ParameterName,
                 com.palantir.conjure.parser.services.ArgumentDefinition> entry : args.entrySet()) {
             com.palantir.conjure.parser.services.ArgumentDefinition original = entry.getValue();
             ArgumentName argName = ArgumentName.of(entry.getKey().name());
-            ParameterType paramType = parseParameterType(original, argName, httpPath);
+            ParameterType paramType = parseParameterType(original, argName, pathArgs);
             ArgumentDefinition.Builder builder = ArgumentDefinition.builder()
                     .argName(argName)
-                    .type(original.type().visit(new ConjureTypeParserVisitor(typeResolver)))
+                    .type(original.type().visit(typeResolver.typeParser()))
                     .paramType(paramType)
                     .docs(original.docs().map(Documentation::of))
                     .markers(parseMarkers(original.markers(), typeResolver));
@@ -402,13 +512,12 @@ public final class ConjureParserUtils {
     private static ParameterType parseParameterType(
             com.palantir.conjure.parser.services.ArgumentDefinition argumentDef,
             ArgumentName argName,
-            HttpPath httpPath) {
+            Set<ArgumentName> pathArgs) {
 
-        Set<ArgumentName> args = HttpPathValidator.pathArgs(httpPath.get());
         switch (argumentDef.paramType()) {
             case AUTO:
                 // AUTO type
-                if (args.contains(argName)) {
+                if (pathArgs.contains(argName)) {
                     // argument exists in request line -- it is a path arg
                     return ParameterType.path(PathParameterType.of());
                 } else {
@@ -434,7 +543,7 @@ public final class ConjureParserUtils {
             Set<com.palantir.conjure.parser.types.ConjureType> markers,
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
         return markers.stream()
-                .map(m -> m.visit(new ConjureTypeParserVisitor(typeResolver)))
+                .map(m -> m.visit(typeResolver.typeParser()))
                 .collect(Collectors.toSet());
     }
 }
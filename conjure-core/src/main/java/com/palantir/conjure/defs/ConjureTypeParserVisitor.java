@@ -43,6 +43,11 @@ public final class ConjureTypeParserVisitor implements ConjureTypeVisitor<Type>
     public interface ReferenceTypeResolver {
         Type resolve(LocalReferenceType reference);
         Type resolve(ForeignReferenceType reference);
+
+        /** Returns a {@link ConjureTypeParserVisitor} which resolves references using this resolver. */
+        default ConjureTypeParserVisitor typeParser() {
+            return new ConjureTypeParserVisitor(this);
+        }
     }
 
     // TODO(rfink): Add explicit test coverage
@@ -0,0 +1,305 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.hash.Hashing;
+import com.palantir.conjure.defs.validator.ConjureDefinitionValidator;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.defs.validator.ValidationUnits;
+import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.NormalizeDefinition;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiles Conjure source files incrementally. After each successful compile, the compiler records in a state file the
+ * fingerprint and imports of every source file and imported file, and the fragment of the definition converted from
+ * each source file. The next compile only parses, converts and validates the source files which changed or which
+ * import a changed file, directly or transitively, and splices their fragments with the recorded ones.
+ *
+ * <p>A fragment only depends on its source file and the files it imports, and the validations which span source files,
+ * i.e. unique names and {@link ConjureDefinitionValidator}, run on the whole spliced definition, so the result is
+ * always equal to that of a full compile with {@link Conjure#parse}.
+ *
+ * <p>A compiler keeps the state of its last successful compile in memory, so that long-running processes which
+ * compile repeatedly don't read it back; instances are not thread-safe.
+ */
+public final class IncrementalCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(IncrementalCompiler.class);
+
+    // the state of an in-memory compiler is never read by another build, so its version doesn't matter
+    private static final String IN_MEMORY_VERSION = "in-memory";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
+
+    private final Optional<Path> stateFile;
+    private final Optional<String> compilerVersion;
+    private Optional<CompilationState> lastState = Optional.empty();
+
+    private IncrementalCompiler(Optional<Path> stateFile, Optional<String> compilerVersion) {
+        this.stateFile = stateFile;
+        this.compilerVersion = compilerVersion;
+    }
+
+    /**
+     * Returns a compiler which records its state in the given file. Every compile is a full compile if the compiler
+     * version is unknown, e.g. when running from an IDE, since states of different builds would clash.
+     */
+    public static IncrementalCompiler create(Path stateFile) {
+        return new IncrementalCompiler(Optional.of(stateFile),
+                Optional.ofNullable(IncrementalCompiler.class.getPackage().getImplementationVersion()));
+    }
+
+    /**
+     * Returns a compiler which records its state in the given file, tagged with the given compiler version. A state
+     * recorded with any other version is ignored.
+     */
+    public static IncrementalCompiler create(Path stateFile, String compilerVersion) {
+        return new IncrementalCompiler(Optional.of(stateFile), Optional.of(compilerVersion));
+    }
+
+    /**
+     * Returns a compiler which only keeps its state in memory: its first compile is a full compile, and each later
+     * compile only recompiles the files which changed since the previous successful one.
+     */
+    public static IncrementalCompiler inMemory() {
+        return new IncrementalCompiler(Optional.empty(), Optional.of(IN_MEMORY_VERSION));
+    }
+
+    /** Compiles the given files as {@link Conjure#parse(Collection, ValidationMode, ParseCache)} does. */
+    public ConjureDefinition compile(Collection<File> files, ValidationMode validationMode, ParseCache parseCache) {
+        if (!compilerVersion.isPresent()) {
+            log.warn("Compiling all files since the compiler version is unknown");
+            return Conjure.parse(files, validationMode, parseCache);
+        }
+
+        CompilationState previous = readState();
+        Fingerprints fingerprints = new Fingerprints();
+        Map<String, Boolean> unchanged = new HashMap<>();
+        List<File> dirtyFiles = files.stream()
+                .filter(file -> !isClean(file.getAbsolutePath(), previous, fingerprints, unchanged))
+                .collect(Collectors.toList());
+        log.debug("Compiling {} of {} files", dirtyFiles.size(), files.size());
+        Set<String> dirtyPaths = dirtyFiles.stream().map(File::getAbsolutePath).collect(Collectors.toSet());
+
+        List<ConjureSourceFile> dirtySources = ConjureParser.parse(dirtyFiles, parseCache);
+        ValidationUnits validation = ValidationUnits.create(validationMode);
+        Iterator<ConjureSourceFile> dirtySource = dirtySources.iterator();
+        Iterator<ConjureDefinition> dirtyFragment =
+                ConjureParserUtils.parseFragments(dirtySources, validation).iterator();
+
+        Map<String, SourceFileState> states = new LinkedHashMap<>();
+        List<ConjureDefinition> fragments = new ArrayList<>(files.size());
+        for (File file : files) {
+            String path = file.getAbsolutePath();
+            if (dirtyPaths.contains(path)) {
+                ConjureDefinition fragment = dirtyFragment.next();
+                recordDirty(file, dirtySource.next(), Optional.of(fragment), fingerprints, states);
+                fragments.add(fragment);
+            } else {
+                recordClean(path, previous, states);
+                fragments.add(previous.files().get(path).fragment().get());
+            }
+        }
+
+        verifyNamesAreUnique(fragments);
+        ConjureDefinition definition = ConjureParserUtils.mergeFragments(fragments);
+        validation.validate();
+        ConjureDefinitionValidator.validateAll(definition);
+
+        writeState(CompilationState.builder().compilerVersion(compilerVersion.get()).files(states).build());
+        return NormalizeDefinition.normalize(definition);
+    }
+
+    /** Returns true if the given source file has a recorded fragment and neither it nor its imports changed since. */
+    private static boolean isClean(
+            String path, CompilationState previous, Fingerprints fingerprints, Map<String, Boolean> unchanged) {
+        SourceFileState state = previous.files().get(path);
+        return state != null
+                && state.fragment().isPresent()
+                && isUnchanged(path, previous, fingerprints, unchanged, new HashSet<>());
+    }
+
+    private static boolean isUnchanged(
+            String path,
+            CompilationState previous,
+            Fingerprints fingerprints,
+            Map<String, Boolean> unchanged,
+            Set<String> visiting) {
+        // Don't use computeIfAbsent, see JDK-8071667: the check recurses into the imports.
+        Boolean result = unchanged.get(path);
+        if (result != null) {
+            return result;
+        }
+        SourceFileState state = previous.files().get(path);
+        // recorded imports are acyclic, a cycle means that the state is corrupt
+        result = state != null
+                && visiting.add(path)
+                && fingerprints.of(path).equals(Optional.of(state.fingerprint()))
+                && state.imports().stream()
+                        .allMatch(imported -> isUnchanged(imported, previous, fingerprints, unchanged, visiting));
+        visiting.remove(path);
+        unchanged.put(path, result);
+        return result;
+    }
+
+    /** Records the given parsed file and, unless already recorded, the files it imports transitively. */
+    private static void recordDirty(
+            File file,
+            ConjureSourceFile source,
+            Optional<ConjureDefinition> fragment,
+            Fingerprints fingerprints,
+            Map<String, SourceFileState> states) {
+        String path = file.getAbsolutePath();
+        // a top-level source file may also be imported by another one, its fragment takes precedence
+        if (states.containsKey(path) && !fragment.isPresent()) {
+            return;
+        }
+
+        Path baseDir = file.toPath().getParent();
+        List<String> imports = new ArrayList<>();
+        source.types().conjureImports().values().forEach(conjureImport -> {
+            File importedFile = baseDir.resolve(conjureImport.file()).toFile();
+            imports.add(importedFile.getAbsolutePath());
+            recordDirty(importedFile, conjureImport.conjure(), Optional.empty(), fingerprints, states);
+        });
+        states.put(path, SourceFileState.builder()
+                .fingerprint(fingerprints.of(path).orElseThrow(() -> new IllegalStateException(
+                        "Source file disappeared during compilation: " + path)))
+                .imports(imports)
+                .fragment(fragment)
+                .build());
+    }
+
+    /** Copies the recorded state of the given unchanged file and the files it imports transitively. */
+    private static void recordClean(String path, CompilationState previous, Map<String, SourceFileState> states) {
+        SourceFileState state = previous.files().get(path);
+        SourceFileState existing = states.get(path);
+        if (existing != null && (existing.fragment().isPresent() || !state.fragment().isPresent())) {
+            return;
+        }
+        states.put(path, state);
+        state.imports().forEach(imported -> recordClean(imported, previous, states));
+    }
+
+    /** Verifies that names are unique across all fragments, as the symbol table of a full compile does. */
+    private static void verifyNamesAreUnique(List<ConjureDefinition> fragments) {
+        SymbolTable.verifyNamesAreUnique(Stream.of(
+                fragments.stream().flatMap(fragment -> fragment.getTypes().stream())
+                        .map(type -> type.accept(TypeDefinitionVisitor.TYPE_NAME)),
+                fragments.stream().flatMap(fragment -> fragment.getErrors().stream())
+                        .map(ErrorDefinition::getErrorName),
+                fragments.stream().flatMap(fragment -> fragment.getServices().stream())
+                        .map(ServiceDefinition::getServiceName))
+                .flatMap(Function.identity()));
+    }
+
+    private CompilationState readState() {
+        CompilationState empty = CompilationState.builder().compilerVersion(compilerVersion.get()).build();
+        return lastState.orElseGet(() -> stateFile
+                .filter(Files::isRegularFile)
+                .flatMap(this::readStateFile)
+                .orElse(empty));
+    }
+
+    private Optional<CompilationState> readStateFile(Path path) {
+        try {
+            CompilationState state = MAPPER.readValue(path.toFile(), CompilationState.class);
+            if (state.compilerVersion().equals(compilerVersion.get())) {
+                return Optional.of(state);
+            }
+            log.info("Compiling all files since the state in {} was recorded by compiler version {}",
+                    path, state.compilerVersion());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Compiling all files since the state in {} is unreadable", path, e);
+        }
+        return Optional.empty();
+    }
+
+    private void writeState(CompilationState state) {
+        lastState = Optional.of(state);
+        stateFile.ifPresent(path -> writeStateFile(path, state));
+    }
+
+    private static void writeStateFile(Path path, CompilationState state) {
+        Path temporary = null;
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            MAPPER.writeValue(temporary.toFile(), state);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            // the next compile is a full compile, which is correct, so don't fail this one
+            log.warn("Failed to write the incremental compilation state to {}", path, e);
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+        }
+    }
+
+    /** The fingerprints of the current contents of files, each file being read at most once per compile. */
+    private static final class Fingerprints {
+        private final Map<String, Optional<String>> fingerprints = new HashMap<>();
+
+        Optional<String> of(String path) {
+            return fingerprints.computeIfAbsent(path, Fingerprints::compute);
+        }
+
+        private static Optional<String> compute(String path) {
+            try {
+                return Optional.of(Hashing.sha256().hashBytes(Files.readAllBytes(new File(path).toPath())).toString());
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.util.List;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** A source file as recorded in a {@link CompilationState}. */
+@JsonDeserialize(as = ImmutableSourceFileState.class)
+@JsonSerialize(as = ImmutableSourceFileState.class)
+@Value.Immutable
+@ConjureImmutablesStyle
+interface SourceFileState {
+
+    /** The SHA-256 hash of the bytes of the file. */
+    String fingerprint();
+
+    /** The absolute paths of the files imported directly by the file. */
+    List<String> imports();
+
+    /** The fragment of the definition converted from the file, present if the file was a top-level source file. */
+    Optional<ConjureDefinition> fragment();
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableSourceFileState.Builder {}
+}
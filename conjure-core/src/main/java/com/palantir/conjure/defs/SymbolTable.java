@@ -0,0 +1,195 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import com.google.common.base.Preconditions;
+import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.types.NamedTypesDefinition;
+import com.palantir.conjure.parser.types.TypesDefinition;
+import com.palantir.conjure.parser.types.names.Namespace;
+import com.palantir.conjure.parser.types.reference.ExternalTypeDefinition;
+import com.palantir.conjure.parser.types.reference.ForeignReferenceType;
+import com.palantir.conjure.parser.types.reference.LocalReferenceType;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeName;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * An immutable table of every type name visible from the source files of a single compile, built once before any
+ * definition is converted. Each {@link ConjureSourceFile} gets a {@link Scope} mapping its local objects to their
+ * resolved {@link Type} and its import namespaces to the scope of the imported file, so that resolving a reference is
+ * a single hash lookup. External imports are kept as parsed and resolved only when referenced.
+ */
+final class SymbolTable {
+
+    private final Map<ConjureSourceFile, Scope> scopes;
+
+    private SymbolTable(Map<ConjureSourceFile, Scope> scopes) {
+        this.scopes = scopes;
+    }
+
+    /**
+     * Builds the symbol table for the given top-level source files and everything they import, and verifies that
+     * type, error, and service names are unique across the top-level files.
+     */
+    static SymbolTable build(Collection<ConjureSourceFile> sourceFiles) {
+        verifyNamesAreUnique(sourceFiles);
+
+        Map<ConjureSourceFile, Scope> scopes = new IdentityHashMap<>();
+        sourceFiles.forEach(sourceFile -> scope(sourceFile, scopes));
+        return new SymbolTable(scopes);
+    }
+
+    /** Returns the resolver for references made from within the given source file. */
+    ConjureTypeParserVisitor.ReferenceTypeResolver resolver(ConjureSourceFile sourceFile) {
+        Scope scope = scopes.get(sourceFile);
+        Preconditions.checkArgument(scope != null, "Source file is not part of this symbol table");
+        return scope;
+    }
+
+    private static Scope scope(ConjureSourceFile sourceFile, Map<ConjureSourceFile, Scope> scopes) {
+        // Don't use computeIfAbsent, see JDK-8071667: building a scope recurses into the scopes of its imports.
+        Scope result = scopes.get(sourceFile);
+        if (result != null) {
+            return result;
+        }
+
+        ImmutableMap.Builder<Namespace, Scope> imports = ImmutableMap.builder();
+        sourceFile.types().conjureImports().forEach((namespace, conjureImport) ->
+                imports.put(namespace, scope(conjureImport.conjure(), scopes)));
+        result = new Scope(localSymbols(sourceFile.types()), sourceFile.types().imports(), imports.build());
+        scopes.put(sourceFile, result);
+        return result;
+    }
+
+    private static Map<com.palantir.conjure.parser.types.names.TypeName, Type> localSymbols(TypesDefinition types) {
+        Map<com.palantir.conjure.parser.types.names.TypeName, Type> symbols = new HashMap<>();
+        Optional<String> defaultPackage = defaultPackage(types.definitions());
+        types.definitions().objects().forEach((name, def) -> symbols.put(name, Type.reference(TypeName.of(
+                name.name(), ConjureParserUtils.parsePackageOrElseThrow(def.conjurePackage(), defaultPackage)))));
+        return symbols;
+    }
+
+    private static Optional<String> defaultPackage(NamedTypesDefinition definitions) {
+        return definitions.defaultConjurePackage().map(ConjureParserUtils::parseConjurePackage);
+    }
+
+    private static Type externalType(ExternalTypeDefinition external) {
+        String externalPath = external.external().java();
+        int lastIndex = externalPath.lastIndexOf(".");
+        String conjurePackage = externalPath.substring(0, lastIndex);
+        String typeName = externalPath.substring(lastIndex + 1);
+
+        return Type.external(ExternalReference.builder()
+                .externalReference(TypeName.of(typeName, conjurePackage))
+                .fallback(ConjureParserUtils.parsePrimitiveType(external.baseType()))
+                .build());
+    }
+
+    private static void verifyNamesAreUnique(Collection<ConjureSourceFile> sourceFiles) {
+        Stream<TypeName> objects = sourceFiles.stream().flatMap(sourceFile -> {
+            NamedTypesDefinition definitions = sourceFile.types().definitions();
+            return definitions.objects().entrySet().stream().map(entry -> TypeName.of(entry.getKey().name(),
+                    ConjureParserUtils.parsePackageOrElseThrow(
+                            entry.getValue().conjurePackage(), defaultPackage(definitions))));
+        });
+        Stream<TypeName> errors = sourceFiles.stream().flatMap(sourceFile -> {
+            NamedTypesDefinition definitions = sourceFile.types().definitions();
+            return definitions.errors().entrySet().stream().map(entry -> TypeName.of(entry.getKey().name(),
+                    ConjureParserUtils.parsePackageOrElseThrow(
+                            entry.getValue().conjurePackage(), defaultPackage(definitions))));
+        });
+        Stream<TypeName> services = sourceFiles.stream().flatMap(sourceFile -> sourceFile.services().entrySet()
+                .stream()
+                .map(entry -> TypeName.of(entry.getKey().name(),
+                        ConjureParserUtils.parseConjurePackage(entry.getValue().conjurePackage()))));
+        verifyNamesAreUnique(Stream.of(objects, errors, services).flatMap(Function.identity()));
+    }
+
+    /**
+     * Verifies that the given type, error, and service names, in the order they are defined, contain no duplicates.
+     */
+    static void verifyNamesAreUnique(Stream<TypeName> names) {
+        Set<TypeName> seenNames = new HashSet<>();
+        names.forEachOrdered(name -> {
+            boolean isNewName = seenNames.add(name);
+            Verify.verify(isNewName,
+                    "Type, error, and service names must be unique across locally defined and imported "
+                            + "types/errors: %s\n%s",
+                    seenNames, name);
+        });
+    }
+
+    private static final class Scope implements ConjureTypeParserVisitor.ReferenceTypeResolver {
+        private final Map<com.palantir.conjure.parser.types.names.TypeName, Type> symbols;
+        private final Map<com.palantir.conjure.parser.types.names.TypeName, ExternalTypeDefinition> externals;
+        private final Map<Namespace, Scope> imports;
+        private final ConjureTypeParserVisitor typeParser;
+
+        Scope(
+                Map<com.palantir.conjure.parser.types.names.TypeName, Type> symbols,
+                Map<com.palantir.conjure.parser.types.names.TypeName, ExternalTypeDefinition> externals,
+                Map<Namespace, Scope> imports) {
+            this.symbols = symbols;
+            this.externals = externals;
+            this.imports = imports;
+            this.typeParser = new ConjureTypeParserVisitor(this);
+        }
+
+        @Override
+        public Type resolve(LocalReferenceType reference) {
+            return resolve(reference.type());
+        }
+
+        @Override
+        public Type resolve(ForeignReferenceType reference) {
+            Scope scope = imports.get(reference.namespace());
+            Preconditions.checkNotNull(scope, "Import not found for namespace: %s", reference.namespace());
+            return scope.resolve(reference.type());
+        }
+
+        private Type resolve(com.palantir.conjure.parser.types.names.TypeName name) {
+            // Conjure-defined objects take precedence over external imports of the same name
+            Type type = symbols.get(name);
+            if (type != null) {
+                return type;
+            }
+            // External imports are only resolved when referenced, so that unused ones are never parsed
+            ExternalTypeDefinition external = externals.get(name);
+            if (external == null) {
+                throw new IllegalStateException("Unknown LocalReferenceType: " + name);
+            }
+            return externalType(external);
+        }
+
+        @Override
+        public ConjureTypeParserVisitor typeParser() {
+            return typeParser;
+        }
+    }
+}
@@ -16,6 +16,7 @@
 
 package com.palantir.conjure.defs;
 
+import com.palantir.conjure.defs.validator.ValidationUnits;
 import com.palantir.conjure.parser.types.TypeDefinitionVisitor;
 import com.palantir.conjure.parser.types.complex.EnumTypeDefinition;
 import com.palantir.conjure.parser.types.complex.ObjectTypeDefinition;
@@ -30,14 +31,24 @@ public final class TypeDefinitionParserVisitor implements TypeDefinitionVisitor<
     private final String name;
     private final Optional<String> defaultPackage;
     private final ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver;
+    private final ValidationUnits validation;
 
     public TypeDefinitionParserVisitor(
             String typeName,
             Optional<String> defaultPackage,
             ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver) {
+        this(typeName, defaultPackage, typeResolver, ValidationUnits.sequential());
+    }
+
+    public TypeDefinitionParserVisitor(
+            String typeName,
+            Optional<String> defaultPackage,
+            ConjureTypeParserVisitor.ReferenceTypeResolver typeResolver,
+            ValidationUnits validation) {
         this.name = typeName;
         this.defaultPackage = defaultPackage;
         this.typeResolver = typeResolver;
+        this.validation = validation;
     }
 
     @Override
@@ -49,18 +60,18 @@ public final class TypeDefinitionParserVisitor implements TypeDefinitionVisitor<
     @Override
     public TypeDefinition visit(EnumTypeDefinition def) {
         return ConjureParserUtils.parseEnumType(
-                ConjureParserUtils.createTypeName(name, def, defaultPackage), def);
+                ConjureParserUtils.createTypeName(name, def, defaultPackage), def, validation);
     }
 
     @Override
     public TypeDefinition visit(ObjectTypeDefinition def) {
         return ConjureParserUtils.parseObjectType(
-                ConjureParserUtils.createTypeName(name, def, defaultPackage), def, typeResolver);
+                ConjureParserUtils.createTypeName(name, def, defaultPackage), def, typeResolver, validation);
     }
 
     @Override
     public TypeDefinition visit(UnionTypeDefinition def) {
         return ConjureParserUtils.parseUnionType(
-                ConjureParserUtils.createTypeName(name, def, defaultPackage), def, typeResolver);
+                ConjureParserUtils.createTypeName(name, def, defaultPackage), def, typeResolver, validation);
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.spec.ArgumentDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.util.Map;
+
+/**
+ * A validation rule over a {@link ConjureDefinition} which is run by the {@link ConjureDefinitionWalker}: instead of
+ * traversing the definition itself, the rule registers callbacks for the nodes it needs to see, and all rules share a
+ * single traversal of the definition.
+ */
+@com.google.errorprone.annotations.Immutable
+public interface ConjureDefinitionRule {
+
+    /**
+     * Returns the callbacks validating the given definition; they may hold state for the duration of that single
+     * traversal. A callback throws an exception if the definition is invalid.
+     *
+     * @param types the type definitions of the given definition by name
+     */
+    Callbacks start(ConjureDefinition definition, Map<TypeName, TypeDefinition> types);
+
+    /**
+     * Callbacks for the nodes of a {@link ConjureDefinition}, in the order of the traversal: each type followed by its
+     * fields, then each error followed by its safe and unsafe arguments, then each service followed by its endpoints,
+     * each endpoint being visited after its arguments. {@link #finish} is called last.
+     */
+    interface Callbacks {
+        default void type(TypeDefinition _type) {}
+
+        /** Called for each field of an object and each member of a union. */
+        default void field(TypeDefinition _owner, FieldDefinition _field) {}
+
+        default void error(ErrorDefinition _error) {}
+
+        default void errorArg(ErrorDefinition _error, FieldDefinition _arg) {}
+
+        default void service(ServiceDefinition _service) {}
+
+        default void arg(EndpointDefinition _endpoint, ArgumentDefinition _arg) {}
+
+        default void endpoint(ServiceDefinition _service, EndpointDefinition _endpoint) {}
+
+        default void finish() {}
+    }
+}
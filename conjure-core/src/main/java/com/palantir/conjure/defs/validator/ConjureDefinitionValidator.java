@@ -19,35 +19,30 @@ package com.palantir.conjure.defs.validator;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Verify;
-import com.google.common.collect.HashMultimap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Multimap;
 import com.palantir.conjure.defs.Conjure;
 import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ArgumentDefinition;
 import com.palantir.conjure.spec.ConjureDefinition;
-import com.palantir.conjure.spec.EnumDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
 import com.palantir.conjure.spec.ErrorDefinition;
 import com.palantir.conjure.spec.FieldDefinition;
-import com.palantir.conjure.spec.ObjectDefinition;
 import com.palantir.conjure.spec.ServiceDefinition;
 import com.palantir.conjure.spec.Type;
 import com.palantir.conjure.spec.TypeDefinition;
 import com.palantir.conjure.spec.TypeName;
-import com.palantir.conjure.spec.UnionDefinition;
 import com.palantir.conjure.visitor.DealiasingTypeVisitor;
 import com.palantir.conjure.visitor.TypeDefinitionVisitor;
 import com.palantir.conjure.visitor.TypeVisitor;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @com.google.errorprone.annotations.Immutable
-public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefinition> {
+public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefinition>, ConjureDefinitionRule {
     UNIQUE_SERVICE_NAMES(new UniqueServiceNamesValidator()),
     ILLEGAL_VERSION(new IllegalVersionValidator()),
     NO_RECURSIVE_TYPES(new NoRecursiveTypesValidator()),
@@ -55,57 +50,77 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
     NO_NESTED_OPTIONAL(new NoNestedOptionalValidator()),
     ILLEGAL_MAP_KEYS(new IllegalMapKeyValidator());
 
+    private static final ImmutableList<ConjureDefinitionValidator> ALL = ImmutableList.copyOf(values());
+
+    /** Validates the definition against all rules with a single traversal, see {@link ConjureDefinitionWalker}. */
     public static void validateAll(ConjureDefinition definition) {
-        for (ConjureValidator validator : values()) {
-            validator.validate(definition);
-        }
+        ConjureDefinitionWalker.validate(definition, ALL);
     }
 
-    private final ConjureValidator<ConjureDefinition> validator;
+    private final ConjureDefinitionRule rule;
 
-    ConjureDefinitionValidator(ConjureValidator<ConjureDefinition> validator) {
-        this.validator = validator;
+    ConjureDefinitionValidator(ConjureDefinitionRule rule) {
+        this.rule = rule;
     }
 
     @Override
     public void validate(ConjureDefinition definition) {
-        validator.validate(definition);
+        ConjureDefinitionWalker.validate(definition, ImmutableList.of(rule));
+    }
+
+    @Override
+    public Callbacks start(ConjureDefinition definition, Map<TypeName, TypeDefinition> types) {
+        return rule.start(definition, types);
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class UniqueServiceNamesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class UniqueServiceNamesValidator implements ConjureDefinitionRule {
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Callbacks start(ConjureDefinition _definition, Map<TypeName, TypeDefinition> _types) {
             Set<String> seenNames = new HashSet<>();
-            definition.getServices().forEach(service -> {
-                boolean isNewName = seenNames.add(service.getServiceName().getName());
-                Preconditions.checkState(isNewName,
-                        "Service names must be unique: %s", service.getServiceName().getName());
-            });
+            return new Callbacks() {
+                @Override
+                public void service(ServiceDefinition service) {
+                    boolean isNewName = seenNames.add(service.getServiceName().getName());
+                    Preconditions.checkState(isNewName,
+                            "Service names must be unique: %s", service.getServiceName().getName());
+                }
+            };
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class IllegalVersionValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class IllegalVersionValidator implements ConjureDefinitionRule {
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Callbacks start(ConjureDefinition definition, Map<TypeName, TypeDefinition> _types) {
             Preconditions.checkState(definition.getVersion() == Conjure.SUPPORTED_IR_VERSION,
                     "Definition version must be %s, but version %s is provided instead.",
                     Conjure.SUPPORTED_IR_VERSION, definition.getVersion());
+            return NO_CALLBACKS;
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class UniqueNamesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class UniqueNamesValidator implements ConjureDefinitionRule {
         @Override
-        public void validate(ConjureDefinition definition) {
+        public Callbacks start(ConjureDefinition _definition, Map<TypeName, TypeDefinition> _types) {
             Set<TypeName> seenNames = new HashSet<>();
-            definition.getTypes().forEach(typeDef ->
-                    verifyNameIsUnique(seenNames, typeDef.accept(TypeDefinitionVisitor.TYPE_NAME)));
-            definition.getErrors().forEach(errorDef ->
-                    verifyNameIsUnique(seenNames, errorDef.getErrorName()));
-            definition.getServices().forEach(serviceDef ->
-                    verifyNameIsUnique(seenNames, serviceDef.getServiceName()));
+            return new Callbacks() {
+                @Override
+                public void type(TypeDefinition type) {
+                    verifyNameIsUnique(seenNames, type.accept(TypeDefinitionVisitor.TYPE_NAME));
+                }
+
+                @Override
+                public void error(ErrorDefinition error) {
+                    verifyNameIsUnique(seenNames, error.getErrorName());
+                }
+
+                @Override
+                public void service(ServiceDefinition service) {
+                    verifyNameIsUnique(seenNames, service.getServiceName());
+                }
+            };
         }
 
         private static void verifyNameIsUnique(Set<TypeName> seenNames, TypeName name) {
@@ -117,301 +132,211 @@ public enum ConjureDefinitionValidator implements ConjureValidator<ConjureDefini
         }
     }
 
+    /**
+     * Rejects types which require a value of themselves, directly or through other types, by finding the cycles of the
+     * {@link TypeReferenceGraph} in time linear in its size.
+     */
     @com.google.errorprone.annotations.Immutable
-    private static final class NoRecursiveTypesValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class NoRecursiveTypesValidator implements ConjureDefinitionRule {
         @Override
-        public void validate(ConjureDefinition definition) {
-            // create mapping from object type name -> names of reference types that are fields of that type
-            Multimap<TypeName, TypeName> typeToRefFields = HashMultimap.create();
-
-            definition.getTypes().forEach(type -> getReferenceType(type).ifPresent(entry ->
-                    typeToRefFields.put(type.accept(TypeDefinitionVisitor.TYPE_NAME), entry)));
-
-            for (TypeName name : typeToRefFields.keySet()) {
-                verifyTypeHasNoRecursiveDefinitions(name, typeToRefFields, new ArrayList<>());
-            }
-        }
+        public Callbacks start(ConjureDefinition _definition, Map<TypeName, TypeDefinition> _types) {
+            TypeReferenceGraph.Builder graph = new TypeReferenceGraph.Builder();
+            return new Callbacks() {
+                @Override
+                public void type(TypeDefinition type) {
+                    graph.add(type);
+                }
 
-        private static Optional<TypeName> getReferenceType(TypeDefinition typeDef) {
-            if (typeDef.accept(TypeDefinitionVisitor.IS_OBJECT)) {
-                ObjectDefinition objectDef = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                for (FieldDefinition currField : objectDef.getFields()) {
-                    Optional<TypeName> referenceType = resolveReferenceType(currField.getType());
-                    if (referenceType.isPresent()) {
-                        return referenceType;
+                @Override
+                public void finish() {
+                    List<List<TypeName>> cycles = graph.build().cycles();
+                    if (!cycles.isEmpty()) {
+                        throw new IllegalStateException("Illegal recursive data type: " + cycles.stream()
+                                .map(cycle -> Joiner.on(" -> ").join(Lists.transform(cycle, TypeName::getName)))
+                                .collect(Collectors.joining("; ")));
                     }
                 }
-            } else if (typeDef.accept(TypeDefinitionVisitor.IS_ALIAS)) {
-                AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                return resolveReferenceType(aliasDef.getAlias());
-            }
-            return Optional.empty();
-        }
-
-        private static Optional<TypeName> resolveReferenceType(Type type) {
-            if (type.accept(TypeVisitor.IS_REFERENCE)) {
-                return Optional.of(type.accept(TypeVisitor.REFERENCE));
-            } else if (type.accept(TypeVisitor.IS_PRIMITIVE)) {
-                return Optional.of(
-                        TypeName.of(type.accept(TypeVisitor.PRIMITIVE).get().name(), ""));
-            }
-            return Optional.empty();
-        }
-
-        private void verifyTypeHasNoRecursiveDefinitions(
-                TypeName typeName, Multimap<TypeName, TypeName> typeMap, List<TypeName> path) {
-            if (path.contains(typeName)) {
-                path.add(typeName);
-                throw new IllegalStateException("Illegal recursive data type: "
-                        + Joiner.on(" -> ").join(Lists.transform(path, TypeName::getName)));
-            }
-
-            path.add(typeName);
-            for (TypeName currField : typeMap.get(typeName)) {
-                verifyTypeHasNoRecursiveDefinitions(currField, typeMap, path);
-            }
-            path.remove(path.size() - 1);
+            };
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    public static final class NoNestedOptionalValidator implements ConjureValidator<ConjureDefinition> {
+    public static final class NoNestedOptionalValidator
+            implements ConjureValidator<ConjureDefinition>, ConjureDefinitionRule {
         @Override
         public void validate(ConjureDefinition definition) {
-            // create mapping for resolving reference types during validation
-            Map<TypeName, TypeDefinition> definitionMap = definition.getTypes().stream().collect(
-                    Collectors.toMap(entry -> entry.accept(TypeDefinitionVisitor.TYPE_NAME), entry -> entry));
-            definition.getTypes().forEach(def -> validateTypeDefinition(def, definitionMap));
-            definition.getErrors().forEach(def -> validateErrorDefinition(def, definitionMap));
-            definition.getServices().forEach(def -> validateServiceDefinition(def, definitionMap));
+            ConjureDefinitionWalker.validate(definition, ImmutableList.of(this));
         }
 
-        private static void validateServiceDefinition(ServiceDefinition serviceDef,
-                Map<TypeName, TypeDefinition> definitionMap) {
-            serviceDef.getEndpoints().forEach(endpoint -> {
-                endpoint.getArgs().stream()
-                        .filter(arg -> recursivelyFindNestedOptionals(arg.getType(), definitionMap, false))
-                        .findAny()
-                        .ifPresent(arg -> {
+        @Override
+        public Callbacks start(ConjureDefinition _definition, Map<TypeName, TypeDefinition> definitionMap) {
+            return new Callbacks() {
+                @Override
+                public void type(TypeDefinition type) {
+                    if (type.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                        AliasDefinition aliasDef = type.accept(TypeDefinitionVisitor.ALIAS);
+                        if (recursivelyFindNestedOptionals(aliasDef.getAlias(), definitionMap)) {
                             throw new IllegalStateException(
-                                    "Illegal nested optionals found in one of the arguments of endpoint "
-                                            + endpoint.getEndpointName().get());
-                        });
-                endpoint.getReturns().ifPresent(returnType -> {
-                    if (recursivelyFindNestedOptionals(returnType, definitionMap, false)) {
-                        throw new IllegalStateException("Illegal nested optionals found in return type of endpoint "
-                                + endpoint.getEndpointName().get());
+                                    "Illegal nested optionals found in alias " + aliasDef.getTypeName().getName());
+                        }
                     }
-                });
-            });
-        }
-
-        private static void validateErrorDefinition(ErrorDefinition errorDef,
-                Map<TypeName, TypeDefinition> definitionMap) {
-            Stream.concat(errorDef.getSafeArgs().stream(), errorDef.getUnsafeArgs().stream())
-                    .filter(arg -> recursivelyFindNestedOptionals(arg.getType(), definitionMap, false))
-                    .findAny()
-                    .ifPresent(arg -> {
-                        throw new IllegalStateException(
-                                "Illegal nested optionals found in one of arguments of error "
-                                        + errorDef.getErrorName().getName());
-                    });
-        }
-
-        private static void validateTypeDefinition(TypeDefinition typeDef,
-                Map<TypeName, TypeDefinition> definitionMap) {
+                }
 
-            typeDef.accept(new TypeDefinition.Visitor<Void>() {
                 @Override
-                public Void visitAlias(AliasDefinition _value) {
-                    AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                    if (recursivelyFindNestedOptionals(aliasDef.getAlias(), definitionMap, false)) {
-                        throw new IllegalStateException(
-                                "Illegal nested optionals found in alias " + aliasDef.getTypeName().getName());
+                public void field(TypeDefinition owner, FieldDefinition field) {
+                    if (recursivelyFindNestedOptionals(field.getType(), definitionMap)) {
+                        throw new IllegalStateException("Illegal nested optionals found in " + describe(owner));
                     }
-                    return null;
                 }
 
                 @Override
-                public Void visitObject(ObjectDefinition _value) {
-                    ObjectDefinition objectDefinition = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                    objectDefinition.getFields().stream()
-                            .filter(fieldDefinition ->
-                                    recursivelyFindNestedOptionals(fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(found -> {
-                                throw new IllegalStateException("Illegal nested optionals found in object "
-                                        + objectDefinition.getTypeName().getName());
-                            });
-                    return null;
+                public void errorArg(ErrorDefinition error, FieldDefinition arg) {
+                    if (recursivelyFindNestedOptionals(arg.getType(), definitionMap)) {
+                        throw new IllegalStateException(
+                                "Illegal nested optionals found in one of arguments of error "
+                                        + error.getErrorName().getName());
+                    }
                 }
 
                 @Override
-                public Void visitUnion(UnionDefinition _value) {
-                    UnionDefinition unionDefinition = typeDef.accept(TypeDefinitionVisitor.UNION);
-                    unionDefinition.getUnion().stream()
-                            .filter(fieldDefinition ->
-                                    recursivelyFindNestedOptionals(fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(found -> {
-                                throw new IllegalStateException("Illegal nested optionals found in union "
-                                        + unionDefinition.getTypeName().getName());
-                            });
-                    return null;
+                public void arg(EndpointDefinition endpoint, ArgumentDefinition arg) {
+                    if (recursivelyFindNestedOptionals(arg.getType(), definitionMap)) {
+                        throw new IllegalStateException(
+                                "Illegal nested optionals found in one of the arguments of endpoint "
+                                        + endpoint.getEndpointName().get());
+                    }
                 }
 
                 @Override
-                public Void visitEnum(EnumDefinition _value) {
-                    return null;
+                public void endpoint(ServiceDefinition _service, EndpointDefinition endpoint) {
+                    endpoint.getReturns().ifPresent(returnType -> {
+                        if (recursivelyFindNestedOptionals(returnType, definitionMap)) {
+                            throw new IllegalStateException(
+                                    "Illegal nested optionals found in return type of endpoint "
+                                            + endpoint.getEndpointName().get());
+                        }
+                    });
                 }
+            };
+        }
 
-                @Override
-                public Void visitUnknown(String _unknownType) {
-                    return null;
-                }
-            });
+        private static boolean recursivelyFindNestedOptionals(Type type, Map<TypeName, TypeDefinition> definitionMap) {
+            return recursivelyFindNestedOptionals(type, definitionMap, new HashSet<>(), false);
         }
 
+        /**
+         * Follows aliases at most once each: a cycle of aliases is reported by {@link NoRecursiveTypesValidator}, which
+         * runs before this rule, but the callbacks of this rule see the types before that rule has finished.
+         */
         private static boolean recursivelyFindNestedOptionals(
-                Type type, Map<TypeName, TypeDefinition> definitionMap, boolean isOptionalSeen) {
+                Type type,
+                Map<TypeName, TypeDefinition> definitionMap,
+                Set<TypeName> visitedAliases,
+                boolean isOptionalSeen) {
             if (type.accept(TypeVisitor.IS_REFERENCE)) {
-                TypeDefinition referenceDefinition = definitionMap.get(type.accept(TypeVisitor.REFERENCE));
+                TypeName reference = type.accept(TypeVisitor.REFERENCE);
+                TypeDefinition referenceDefinition = definitionMap.get(reference);
                 // we only care about reference of alias type
-                if (referenceDefinition != null && referenceDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                if (referenceDefinition != null && referenceDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)
+                        && visitedAliases.add(reference)) {
                     AliasDefinition aliasDef = referenceDefinition.accept(TypeDefinitionVisitor.ALIAS);
-                    return recursivelyFindNestedOptionals(aliasDef.getAlias(), definitionMap, isOptionalSeen);
+                    return recursivelyFindNestedOptionals(
+                            aliasDef.getAlias(), definitionMap, visitedAliases, isOptionalSeen);
                 }
             } else if (type.accept(TypeVisitor.IS_OPTIONAL)) {
                 if (isOptionalSeen) {
                     return true;
                 }
                 return recursivelyFindNestedOptionals(type.accept(TypeVisitor.OPTIONAL).getItemType(), definitionMap,
-                        true);
+                        visitedAliases, true);
             }
             return false;
         }
     }
 
     @com.google.errorprone.annotations.Immutable
-    private static final class IllegalMapKeyValidator implements ConjureValidator<ConjureDefinition> {
+    private static final class IllegalMapKeyValidator implements ConjureDefinitionRule {
 
         @Override
-        public void validate(ConjureDefinition definition) {
-            // create mapping for resolving reference types during validation
-            Map<TypeName, TypeDefinition> definitionMap = definition.getTypes().stream().collect(
-                    Collectors.toMap(entry -> entry.accept(TypeDefinitionVisitor.TYPE_NAME), entry -> entry));
-            definition.getTypes().forEach(def -> validateTypeDefinition(def, definitionMap));
-            definition.getErrors().forEach(def -> validateErrorDefinition(def, definitionMap));
-            definition.getServices().forEach(def -> validateServiceDefinition(def, definitionMap));
-        }
-
-        private static void validateServiceDefinition(ServiceDefinition serviceDef,
-                Map<TypeName, TypeDefinition> definitionMap) {
-            serviceDef.getEndpoints().forEach(endpoint -> {
-                endpoint.getArgs().stream()
-                        .filter(arg -> recursivelyFindIllegalKeys(arg.getType(), definitionMap, false))
-                        .findAny()
-                        .ifPresent(arg -> {
-                            throw new IllegalStateException(
-                                    "Illegal map key found in one of the arguments of endpoint "
-                                            + endpoint.getEndpointName().get());
-                        });
-                endpoint.getReturns().ifPresent(returnType -> {
-                    if (recursivelyFindIllegalKeys(returnType, definitionMap, false)) {
-                        throw new IllegalStateException(
-                                "Illegal map key found in return type of endpoint "
-                                        + endpoint.getEndpointName().get());
-                    }
-                });
-            });
-        }
-
-        private static void validateErrorDefinition(ErrorDefinition errorDef,
-                Map<TypeName, TypeDefinition> definitionMap) {
-            Stream.concat(errorDef.getSafeArgs().stream(), errorDef.getUnsafeArgs().stream())
-                    .filter(arg -> recursivelyFindIllegalKeys(arg.getType(), definitionMap, false))
-                    .findAny()
-                    .ifPresent(arg -> {
-                        throw new IllegalStateException(
-                                "Illegal map key found in one of arguments of error "
-                                        + errorDef.getErrorName().getName());
-                    });
-        }
-
-        private static void validateTypeDefinition(TypeDefinition typeDef,
-                Map<TypeName, TypeDefinition> definitionMap) {
-
-            typeDef.accept(new TypeDefinition.Visitor<Void>() {
+        public Callbacks start(ConjureDefinition _definition, Map<TypeName, TypeDefinition> definitionMap) {
+            DealiasingTypeVisitor dealiasingTypeVisitor = new DealiasingTypeVisitor(definitionMap);
+            return new Callbacks() {
                 @Override
-                public Void visitAlias(AliasDefinition _value) {
-                    AliasDefinition aliasDef = typeDef.accept(TypeDefinitionVisitor.ALIAS);
-                    if (recursivelyFindIllegalKeys(aliasDef.getAlias(), definitionMap, false)) {
-                        throw new IllegalStateException(
-                                "Illegal map key found in alias " + aliasDef.getTypeName().getName());
+                public void type(TypeDefinition type) {
+                    if (type.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                        AliasDefinition aliasDef = type.accept(TypeDefinitionVisitor.ALIAS);
+                        if (recursivelyFindIllegalKeys(aliasDef.getAlias(), dealiasingTypeVisitor, false)) {
+                            throw new IllegalStateException(
+                                    "Illegal map key found in alias " + aliasDef.getTypeName().getName());
+                        }
                     }
-                    return null;
                 }
 
                 @Override
-                public Void visitObject(ObjectDefinition _value) {
-                    ObjectDefinition objectDefinition = typeDef.accept(TypeDefinitionVisitor.OBJECT);
-                    objectDefinition.getFields().stream()
-                            .filter(fieldDefinition -> recursivelyFindIllegalKeys(
-                                    fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(found -> {
-                                throw new IllegalStateException(
-                                        "Illegal map key found in object "
-                                                + objectDefinition.getTypeName().getName());
-                            });
-                    return null;
+                public void field(TypeDefinition owner, FieldDefinition field) {
+                    if (recursivelyFindIllegalKeys(field.getType(), dealiasingTypeVisitor, false)) {
+                        throw new IllegalStateException("Illegal map key found in " + describe(owner));
+                    }
                 }
 
                 @Override
-                public Void visitUnion(UnionDefinition _value) {
-                    UnionDefinition unionDefinition = typeDef.accept(TypeDefinitionVisitor.UNION);
-                    unionDefinition.getUnion().stream()
-                            .filter(fieldDefinition -> recursivelyFindIllegalKeys(
-                                    fieldDefinition.getType(), definitionMap, false))
-                            .findAny()
-                            .ifPresent(found -> {
-                                throw new IllegalStateException(
-                                        "Illegal map key found in union "
-                                                + unionDefinition.getTypeName().getName());
-                            });
-                    return null;
+                public void errorArg(ErrorDefinition error, FieldDefinition arg) {
+                    if (recursivelyFindIllegalKeys(arg.getType(), dealiasingTypeVisitor, false)) {
+                        throw new IllegalStateException(
+                                "Illegal map key found in one of arguments of error "
+                                        + error.getErrorName().getName());
+                    }
                 }
 
                 @Override
-                public Void visitEnum(EnumDefinition _value) {
-                    return null;
+                public void arg(EndpointDefinition endpoint, ArgumentDefinition arg) {
+                    if (recursivelyFindIllegalKeys(arg.getType(), dealiasingTypeVisitor, false)) {
+                        throw new IllegalStateException(
+                                "Illegal map key found in one of the arguments of endpoint "
+                                        + endpoint.getEndpointName().get());
+                    }
                 }
 
                 @Override
-                public Void visitUnknown(String _unknownType) {
-                    return null;
+                public void endpoint(ServiceDefinition _service, EndpointDefinition endpoint) {
+                    endpoint.getReturns().ifPresent(returnType -> {
+                        if (recursivelyFindIllegalKeys(returnType, dealiasingTypeVisitor, false)) {
+                            throw new IllegalStateException(
+                                    "Illegal map key found in return type of endpoint "
+                                            + endpoint.getEndpointName().get());
+                        }
+                    });
                 }
-            });
+            };
         }
 
         private static boolean recursivelyFindIllegalKeys(
                 Type type,
-                Map<TypeName, TypeDefinition> definitionMap,
+                DealiasingTypeVisitor dealiasingTypeVisitor,
                 boolean isMapKey) {
             if (type.accept(TypeVisitor.IS_MAP)) {
                 if (isMapKey) {
                     return true;
                 }
-                return recursivelyFindIllegalKeys(type.accept(TypeVisitor.MAP).getKeyType(), definitionMap, true)
-                        || recursivelyFindIllegalKeys(type.accept(TypeVisitor.MAP).getKeyType(), definitionMap, false);
+                Type keyType = type.accept(TypeVisitor.MAP).getKeyType();
+                return recursivelyFindIllegalKeys(keyType, dealiasingTypeVisitor, true)
+                        || recursivelyFindIllegalKeys(keyType, dealiasingTypeVisitor, false);
             }
 
             if (isMapKey) {
-                return new DealiasingTypeVisitor(definitionMap).dealias(type).fold(
+                return dealiasingTypeVisitor.dealias(type).fold(
                         typeDefinition -> !typeDefinition.accept(TypeDefinitionVisitor.IS_ENUM),
                         subType -> !subType.accept(TypeVisitor.IS_PRIMITIVE) || subType.accept(TypeVisitor.IS_ANY));
             }
             return false;
         }
     }
+
+    private static final Callbacks NO_CALLBACKS = new Callbacks() {};
+
+    /** Describes the object or union owning a field, e.g. {@code object Foo}. */
+    private static String describe(TypeDefinition owner) {
+        String kind = owner.accept(TypeDefinitionVisitor.IS_UNION) ? "union " : "object ";
+        return kind + owner.accept(TypeDefinitionVisitor.TYPE_NAME).getName();
+    }
 }
@@ -0,0 +1,150 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ArgumentDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EnumDefinition;
+import com.palantir.conjure.spec.ErrorDefinition;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.spec.UnionDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link ConjureDefinitionRule}s over a {@link ConjureDefinition} with a single traversal of the definition and a
+ * single type index shared by all rules.
+ *
+ * <p>The outcome is the same as running the rules one after the other: once a callback throws, its rule and all rules
+ * after it stop receiving callbacks, and the exception of the first failing rule in the given order is rethrown.
+ */
+public final class ConjureDefinitionWalker {
+
+    private static final TypeDefinition.Visitor<List<FieldDefinition>> FIELDS =
+            new TypeDefinition.Visitor<List<FieldDefinition>>() {
+                @Override
+                public List<FieldDefinition> visitAlias(AliasDefinition _value) {
+                    return Collections.emptyList();
+                }
+
+                @Override
+                public List<FieldDefinition> visitEnum(EnumDefinition _value) {
+                    return Collections.emptyList();
+                }
+
+                @Override
+                public List<FieldDefinition> visitObject(ObjectDefinition value) {
+                    return value.getFields();
+                }
+
+                @Override
+                public List<FieldDefinition> visitUnion(UnionDefinition value) {
+                    return value.getUnion();
+                }
+
+                @Override
+                public List<FieldDefinition> visitUnknown(String _unknownType) {
+                    return Collections.emptyList();
+                }
+            };
+
+    private final ConjureDefinitionRule.Callbacks[] callbacks;
+    private final RuntimeException[] failures;
+    // only rules before this index still receive callbacks: the failure of a rule takes precedence over later rules
+    private int activeRules;
+
+    private ConjureDefinitionWalker(int rules) {
+        this.callbacks = new ConjureDefinitionRule.Callbacks[rules];
+        this.failures = new RuntimeException[rules];
+        this.activeRules = rules;
+    }
+
+    /** Validates the given definition against all given rules, throwing the failure of the first failing rule. */
+    public static void validate(ConjureDefinition definition, List<? extends ConjureDefinitionRule> rules) {
+        ConjureDefinitionWalker walker = new ConjureDefinitionWalker(rules.size());
+        walker.walk(definition, rules);
+        for (RuntimeException failure : walker.failures) {
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void walk(ConjureDefinition definition, List<? extends ConjureDefinitionRule> rules) {
+        Map<TypeName, TypeDefinition> types = new HashMap<>();
+        definition.getTypes().forEach(type -> types.put(type.accept(TypeDefinitionVisitor.TYPE_NAME), type));
+        Map<TypeName, TypeDefinition> unmodifiableTypes = Collections.unmodifiableMap(types);
+        for (int i = 0; i < activeRules; i++) {
+            try {
+                callbacks[i] = rules.get(i).start(definition, unmodifiableTypes);
+            } catch (RuntimeException e) {
+                fail(i, e);
+            }
+        }
+
+        for (TypeDefinition type : definition.getTypes()) {
+            each(rule -> rule.type(type));
+            for (FieldDefinition field : type.accept(FIELDS)) {
+                each(rule -> rule.field(type, field));
+            }
+        }
+        for (ErrorDefinition error : definition.getErrors()) {
+            each(rule -> rule.error(error));
+            for (FieldDefinition arg : error.getSafeArgs()) {
+                each(rule -> rule.errorArg(error, arg));
+            }
+            for (FieldDefinition arg : error.getUnsafeArgs()) {
+                each(rule -> rule.errorArg(error, arg));
+            }
+        }
+        for (ServiceDefinition service : definition.getServices()) {
+            each(rule -> rule.service(service));
+            for (EndpointDefinition endpoint : service.getEndpoints()) {
+                for (ArgumentDefinition arg : endpoint.getArgs()) {
+                    each(rule -> rule.arg(endpoint, arg));
+                }
+                each(rule -> rule.endpoint(service, endpoint));
+            }
+        }
+        each(ConjureDefinitionRule.Callbacks::finish);
+    }
+
+    private void each(Consumer<ConjureDefinitionRule.Callbacks> callback) {
+        for (int i = 0; i < activeRules; i++) {
+            try {
+                callback.accept(callbacks[i]);
+            } catch (RuntimeException e) {
+                fail(i, e);
+            }
+        }
+    }
+
+    private void fail(int rule, RuntimeException failure) {
+        failures[rule] = failure;
+        activeRules = rule;
+    }
+}
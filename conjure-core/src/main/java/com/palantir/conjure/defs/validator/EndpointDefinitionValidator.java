@@ -44,7 +44,6 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -353,9 +352,8 @@ public enum EndpointDefinitionValidator implements ConjureContextualValidator<En
         @Override
         public void validate(EndpointDefinition definition) {
             definition.getArgs().forEach(arg -> {
-                Matcher matcher = CaseConverter.CAMEL_CASE_PATTERN.matcher(arg.getArgName().get());
                 Preconditions.checkState(
-                        matcher.matches(),
+                        CaseConverter.Case.LOWER_CAMEL_CASE.matches(arg.getArgName().get()),
                         "Parameter names in endpoint paths and service definitions "
                                 + "must match pattern %s: %s on endpoint %s",
                         CaseConverter.CAMEL_CASE_PATTERN,
@@ -376,20 +374,18 @@ public enum EndpointDefinitionValidator implements ConjureContextualValidator<En
                     // No validation for param-id of body and path parameters, as it is never (de)serialized.
                 } else if (paramType.accept(ParameterTypeVisitor.IS_HEADER)) {
                     ParameterId paramId = paramType.accept(ParameterTypeVisitor.HEADER).getParamId();
-                    Preconditions.checkState(HEADER_PATTERN.matcher(paramId.get()).matches(),
+                    Preconditions.checkState(NameRecognizers.isHeaderName(paramId.get()),
                             "Header parameter id %s on endpoint %s must match pattern %s",
                             paramId.get(), describe(definition), HEADER_PATTERN);
 
                 } else if (paramType.accept(ParameterTypeVisitor.IS_QUERY)) {
                     ParameterId paramId = paramType.accept(ParameterTypeVisitor.QUERY).getParamId();
                     Preconditions.checkState(
-                            CaseConverter.CAMEL_CASE_PATTERN.matcher(paramId.get()).matches()
-                                    || CaseConverter.KEBAB_CASE_PATTERN.matcher(paramId.get()).matches()
-                                    || CaseConverter.SNAKE_CASE_PATTERN.matcher(paramId.get()).matches(),
+                            CaseConverter.isAnyCase(paramId.get()),
                             "Query param id %s on endpoint %s must match one of the following patterns: %s",
                                     paramId.get(), describe(definition), Arrays.toString(CaseConverter.Case.values()));
 
-                    if (!CaseConverter.CAMEL_CASE_PATTERN.matcher(paramId.get()).matches()) {
+                    if (!CaseConverter.Case.LOWER_CAMEL_CASE.matches(paramId.get())) {
                         log.warn("Query param ids should be camelCase. kebab-case and snake_case are supported for "
                                 + "legacy endpoints only: {} on endpoint {}", paramId.get(), describe(definition));
                     }
@@ -46,13 +46,11 @@ public final class FieldNameValidator {
     @SuppressWarnings("Slf4jLogsafeArgs")
     public static void validate(FieldName fieldName) {
         Preconditions.checkArgument(
-                CaseConverter.CAMEL_CASE_PATTERN.matcher(fieldName.get()).matches()
-                        || CaseConverter.KEBAB_CASE_PATTERN.matcher(fieldName.get()).matches()
-                        || CaseConverter.SNAKE_CASE_PATTERN.matcher(fieldName.get()).matches(),
+                CaseConverter.isAnyCase(fieldName.get()),
                 "FieldName \"%s\" must follow one of the following patterns: %s",
                 fieldName, Arrays.toString(CaseConverter.Case.values()));
 
-        if (!CaseConverter.CAMEL_CASE_PATTERN.matcher(fieldName.get()).matches()) {
+        if (!CaseConverter.Case.LOWER_CAMEL_CASE.matches(fieldName.get())) {
             log.warn("{} should be specified in lowerCamelCase. kebab-case and snake_case are supported for "
                     + "legacy endpoints only: {}", FieldName.class, fieldName.get());
         }
@@ -60,7 +58,7 @@ public final class FieldNameValidator {
 
     private static CaseConverter.Case nameCase(FieldName fieldName) {
         for (CaseConverter.Case nameCase : CaseConverter.Case.values()) {
-            if (nameCase.getPattern().matcher(fieldName.get()).matches()) {
+            if (nameCase.matches(fieldName.get())) {
                 return nameCase;
             }
         }
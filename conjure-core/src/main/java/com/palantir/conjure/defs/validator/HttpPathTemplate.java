@@ -0,0 +1,173 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.spec.ArgumentName;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A Conjure http path, e.g. {@code /catalog/{datasetRid}/files/{path:.+}}, tokenized once into its literal and
+ * variable segments. Tokenization is lenient: any segment of the form <code>{...}</code> is a variable, whose name is
+ * the text up to the first {@code ':'} and whose regular expression is the text after it; the segments are checked by
+ * {@link HttpPathValidator}. Empty segments, e.g. in {@code /a//b}, are ignored.
+ *
+ * <p>Templates are immutable and shared through a thread-safe, size-bounded cache, since the same path is needed for
+ * validation and for each argument of an endpoint.
+ */
+@com.google.errorprone.annotations.Immutable
+public final class HttpPathTemplate {
+
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    private static final LoadingCache<String, HttpPathTemplate> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .build(CacheLoader.from(HttpPathTemplate::parse));
+
+    private final boolean absolute;
+    private final boolean folder;
+    private final ImmutableList<Segment> segments;
+    private final ImmutableSet<ArgumentName> variables;
+
+    private HttpPathTemplate(boolean absolute, boolean folder, ImmutableList<Segment> segments) {
+        this.absolute = absolute;
+        this.folder = folder;
+        this.segments = segments;
+        this.variables = segments.stream()
+                .filter(Segment::isVariable)
+                .map(segment -> ArgumentName.of(segment.text()))
+                .collect(ImmutableSet.toImmutableSet());
+    }
+
+    /** Returns the shared template of the given path, tokenizing it on a cache miss. */
+    public static HttpPathTemplate of(String path) {
+        return CACHE.getUnchecked(path);
+    }
+
+    private static HttpPathTemplate parse(String path) {
+        ImmutableList.Builder<Segment> segments = ImmutableList.builder();
+        int start = 0;
+        while (start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end == -1) {
+                end = path.length();
+            }
+            if (end > start) {
+                segments.add(Segment.parse(path.substring(start, end)));
+            }
+            start = end + 1;
+        }
+        return new HttpPathTemplate(path.startsWith("/"), path.endsWith("/"), segments.build());
+    }
+
+    /** Returns true if the path starts with {@code '/'}. */
+    public boolean isAbsolute() {
+        return absolute;
+    }
+
+    /** Returns true if the path ends with {@code '/'}. */
+    public boolean isFolder() {
+        return folder;
+    }
+
+    /** Returns the non-empty segments of the path, in order. */
+    public List<Segment> segments() {
+        return segments;
+    }
+
+    /** Returns the names of the variables of the path, in order of first appearance. */
+    public Set<ArgumentName> variables() {
+        return variables;
+    }
+
+    /** Returns the normalized path, i.e. without empty segments. */
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        if (absolute) {
+            builder.append('/');
+        }
+        for (int i = 0; i < segments.size(); i++) {
+            if (i > 0) {
+                builder.append('/');
+            }
+            builder.append(segments.get(i).raw);
+        }
+        if (folder && !segments.isEmpty()) {
+            builder.append('/');
+        }
+        return builder.toString();
+    }
+
+    /** A segment of a path: either a literal or a variable with an optional regular expression. */
+    @com.google.errorprone.annotations.Immutable
+    public static final class Segment {
+        private final String raw;
+        private final boolean variable;
+        private final String text;
+        private final Optional<String> regex;
+
+        private Segment(String raw, boolean variable, String text, Optional<String> regex) {
+            this.raw = raw;
+            this.variable = variable;
+            this.text = text;
+            this.regex = regex;
+        }
+
+        private static Segment parse(String raw) {
+            if (raw.length() < 2 || raw.charAt(0) != '{' || raw.charAt(raw.length() - 1) != '}') {
+                return new Segment(raw, false, raw, Optional.empty());
+            }
+            String body = raw.substring(1, raw.length() - 1);
+            int colon = body.indexOf(':');
+            if (colon == -1) {
+                return new Segment(raw, true, body, Optional.empty());
+            }
+            return new Segment(raw, true, body.substring(0, colon), Optional.of(body.substring(colon + 1)));
+        }
+
+        /** Returns the segment as written in the path, e.g. {@code {path:.+}}. */
+        public String raw() {
+            return raw;
+        }
+
+        public boolean isVariable() {
+            return variable;
+        }
+
+        /** Returns the literal text of a literal segment, or the variable name of a variable segment. */
+        public String text() {
+            return text;
+        }
+
+        /** Returns the regular expression of a variable segment, e.g. {@code .+}, if one is specified. */
+        public Optional<String> regex() {
+            return regex;
+        }
+
+        @Override
+        public String toString() {
+            return raw;
+        }
+    }
+}
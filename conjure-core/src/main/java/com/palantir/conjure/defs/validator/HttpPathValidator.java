@@ -17,25 +17,19 @@
 package com.palantir.conjure.defs.validator;
 
 import com.google.common.base.Preconditions;
-import com.google.common.base.Splitter;
 import com.palantir.conjure.spec.ArgumentName;
 import com.palantir.conjure.spec.HttpPath;
-import com.palantir.util.syntacticpath.Path;
-import com.palantir.util.syntacticpath.Paths;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import org.glassfish.jersey.uri.UriTemplate;
-import org.glassfish.jersey.uri.internal.UriTemplateParser;
 
 public final class HttpPathValidator {
 
     private HttpPathValidator() {}
 
     public static final String PATTERN = "[a-z][a-z0-9]*([A-Z0-9][a-z0-9]+)*";
+    // the patterns below are only used in error messages, segments are matched by NameRecognizers
     private static final Pattern SEGMENT_PATTERN = Pattern.compile("^[a-zA-Z][a-zA-Z0-9._-]*$");
     private static final Pattern PARAM_SEGMENT_PATTERN = Pattern.compile("^\\{" + PATTERN + "}$");
     private static final Pattern PARAM_REGEX_SEGMENT_PATTERN =
@@ -47,26 +41,20 @@ public final class HttpPathValidator {
      * returns path arguments of the http path.
      */
     public static Set<ArgumentName> pathArgs(String httpPath) {
-        UriTemplate uriTemplate = new UriTemplate(httpPath);
-        return uriTemplate.getTemplateVariables()
-                .stream()
-                .map(ArgumentName::of)
-                .collect(Collectors.toSet());
+        return HttpPathTemplate.of(httpPath).variables();
     }
 
     /** validates if a new instance has the correct syntax. */
     public static void validate(HttpPath httpPath) {
-        Path path = Paths.get(httpPath.get());
+        HttpPathTemplate path = HttpPathTemplate.of(httpPath.get());
         Preconditions.checkArgument(path.isAbsolute(),
                 "Conjure paths must be absolute, i.e., start with '/': %s", path);
-        Preconditions.checkArgument(path.getSegments().isEmpty() || !path.isFolder(),
+        Preconditions.checkArgument(path.segments().isEmpty() || !path.isFolder(),
                 "Conjure paths must not end with a '/': %s", path);
 
-        for (String segment : path.getSegments()) {
-            Preconditions.checkArgument(
-                    SEGMENT_PATTERN.matcher(segment).matches()
-                            || PARAM_SEGMENT_PATTERN.matcher(segment).matches()
-                            || PARAM_REGEX_SEGMENT_PATTERN.matcher(segment).matches(),
+        List<HttpPathTemplate.Segment> segments = path.segments();
+        for (HttpPathTemplate.Segment segment : segments) {
+            Preconditions.checkArgument(isValidSegment(segment),
                     "Segment %s of path %s did not match required segment patterns %s or parameter name "
                             + "patterns %s or %s",
                     segment, path, SEGMENT_PATTERN, PARAM_SEGMENT_PATTERN, PARAM_REGEX_SEGMENT_PATTERN);
@@ -74,34 +62,20 @@ public final class HttpPathValidator {
 
         // verify that path template variables are unique
         Set<String> templateVars = new HashSet<>();
-        new UriTemplate(path.toString()).getTemplateVariables().forEach(var -> {
-            Preconditions.checkState(
-                    !templateVars.contains(var), "Path parameter %s appears more than once in path %s", var, path);
-            templateVars.add(var);
-        });
-
-        UriTemplateParser uriTemplateParser = new UriTemplateParser(path.toString());
-        Map<String, Pattern> nameToPattern = uriTemplateParser.getNameToPattern();
-        List<String> segments = Splitter.on('/').splitToList(uriTemplateParser.getNormalizedTemplate());
-        for (int i = 0; i < segments.size(); i++) {
-            String segment = segments.get(i);
-            if (!(segment.startsWith("{") && segment.endsWith("}"))) {
-                // path literal
-                continue;
-            }
-
-            // variable
-            Pattern varPattern = nameToPattern.get(segment.substring(1, segment.length() - 1));
-            if (varPattern.equals(UriTemplateParser.TEMPLATE_VALUE_PATTERN)) {
-                // no regular expression specified -- OK
-                continue;
+        for (HttpPathTemplate.Segment segment : segments) {
+            if (segment.isVariable()) {
+                Preconditions.checkState(templateVars.add(segment.text()),
+                        "Path parameter %s appears more than once in path %s", segment.text(), path);
             }
+        }
 
+        for (int i = 0; i < segments.size(); i++) {
+            HttpPathTemplate.Segment segment = segments.get(i);
             // if regular expression was specified, it must be ".+" or ".*" based on invariant previously enforced
-            Preconditions.checkState(i == segments.size() - 1 || !varPattern.pattern().equals(".*"),
+            Preconditions.checkState(i == segments.size() - 1 || !segment.regex().filter(".*"::equals).isPresent(),
                     "Path parameter %s in path %s specifies regular expression %s, but this regular "
-                            + "expression is only permitted if the path parameter is the last segment", segment,
-                    path, varPattern);
+                            + "expression is only permitted if the path parameter is the last segment",
+                    "{" + segment.text() + "}", path, ".*");
         }
     }
 
@@ -112,4 +86,12 @@ public final class HttpPathValidator {
             return httpPath;
         }
     }
+
+    private static boolean isValidSegment(HttpPathTemplate.Segment segment) {
+        if (!segment.isVariable()) {
+            return NameRecognizers.isPathSegment(segment.text());
+        }
+        return NameRecognizers.isPathParameterName(segment.text())
+                && segment.regex().map(regex -> regex.equals(".+") || regex.equals(".*")).orElse(true);
+    }
 }
@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+/**
+ * Single-scan recognizers for the names of a Conjure definition. Each method accepts exactly the strings matched by
+ * the regular expression in its doc comment, without the cost of the regex engine: these checks run for every name of
+ * every definition.
+ */
+public final class NameRecognizers {
+
+    private NameRecognizers() {}
+
+    /** Matches {@code ^[A-Z][a-z0-9]+([A-Z][a-z0-9]+)*$}. */
+    public static boolean isTypeName(String name) {
+        if (name.isEmpty() || !isUpper(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (isUpper(ch)) {
+                if (isUpper(name.charAt(i - 1))) {
+                    return false;
+                }
+            } else if (!isLower(ch) && !isDigit(ch)) {
+                return false;
+            }
+        }
+        return !isUpper(name.charAt(name.length() - 1));
+    }
+
+    /** Matches {@code ^[A-Z][a-zA-Z0-9]*(-[A-Z][a-zA-Z0-9]*)*$}. */
+    public static boolean isHeaderName(String name) {
+        if (name.isEmpty() || !isUpper(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch == '-') {
+                if (i + 1 == name.length() || !isUpper(name.charAt(i + 1))) {
+                    return false;
+                }
+            } else if (!isLower(ch) && !isUpper(ch) && !isDigit(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matches {@code ^[a-z]+(-[a-z]+)*$}, the keys of a Conjure YAML file. */
+    public static boolean isKebabCaseKey(String name) {
+        if (name.isEmpty() || !isLower(name.charAt(0)) || !isLower(name.charAt(name.length() - 1))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (ch == '-') {
+                if (name.charAt(i - 1) == '-') {
+                    return false;
+                }
+            } else if (!isLower(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Matches {@code ^[a-zA-Z][a-zA-Z0-9._-]*$}, a literal segment of an http path. */
+    public static boolean isPathSegment(String segment) {
+        if (segment.isEmpty() || !isLetter(segment.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < segment.length(); i++) {
+            char ch = segment.charAt(i);
+            if (!isLetter(ch) && !isDigit(ch) && ch != '.' && ch != '_' && ch != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches {@code ^[a-z][a-z0-9]*([A-Z0-9][a-z0-9]+)*$}, the name of an http path parameter: a lower case letter
+     * followed by letters and digits, where each upper case letter is followed by a lower case letter or digit.
+     */
+    public static boolean isPathParameterName(String name) {
+        if (name.isEmpty() || !isLower(name.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (isUpper(ch)) {
+                if (i + 1 == name.length() || !(isLower(name.charAt(i + 1)) || isDigit(name.charAt(i + 1)))) {
+                    return false;
+                }
+            } else if (!isLower(ch) && !isDigit(ch)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char ch) {
+        return isLower(ch) || isUpper(ch);
+    }
+
+    private static boolean isLower(char ch) {
+        return ch >= 'a' && ch <= 'z';
+    }
+
+    private static boolean isUpper(char ch) {
+        return ch >= 'A' && ch <= 'Z';
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
+}
@@ -27,6 +27,7 @@ public final class TypeNameValidator {
 
     private TypeNameValidator() {}
 
+    // only used in error messages, names are matched by NameRecognizers
     private static final Pattern CUSTOM_TYPE_PATTERN = Pattern.compile("^[A-Z][a-z0-9]+([A-Z][a-z0-9]+)*$");
 
     static final List<String> PRIMITIVE_TYPES = Lists.transform(
@@ -34,7 +35,7 @@ public final class TypeNameValidator {
 
     public static void validate(TypeName typeName) {
         Preconditions.checkArgument(
-                CUSTOM_TYPE_PATTERN.matcher(typeName.getName()).matches()
+                NameRecognizers.isTypeName(typeName.getName())
                         || PRIMITIVE_TYPES.contains(typeName.getName()),
                 "TypeNames must be a primitive type %s or match pattern %s: %s",
                 PRIMITIVE_TYPES, CUSTOM_TYPE_PATTERN, typeName.getName());
@@ -0,0 +1,219 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import com.palantir.conjure.visitor.TypeVisitor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The graph of direct references between type definitions: there is an edge from an object to the type of each of its
+ * fields and from an alias to its target, whenever that type is a plain reference. References nested in containers,
+ * e.g. {@code optional<Foo>} or {@code list<Foo>}, are not edges since they don't require a value of the referenced
+ * type. Nodes and edges are kept in definition order, so traversals are deterministic.
+ */
+public final class TypeReferenceGraph {
+
+    private final Map<TypeName, Set<TypeName>> edges;
+
+    private TypeReferenceGraph(Map<TypeName, Set<TypeName>> edges) {
+        this.edges = edges;
+    }
+
+    public static TypeReferenceGraph of(Iterable<TypeDefinition> types) {
+        Builder builder = new Builder();
+        types.forEach(builder::add);
+        return builder.build();
+    }
+
+    /** Returns the types defined in this graph, in definition order. */
+    public Set<TypeName> types() {
+        return Collections.unmodifiableSet(edges.keySet());
+    }
+
+    /** Returns the types directly referenced by the given type, which may not be defined in this graph. */
+    public Set<TypeName> references(TypeName type) {
+        return edges.getOrDefault(type, ImmutableSet.of());
+    }
+
+    /**
+     * Returns the strongly connected components of this graph in reverse topological order, i.e. each component comes
+     * before the components which reference it. Uses Tarjan's algorithm, in time linear in the size of the graph and
+     * without recursion, so arbitrarily deep reference chains are fine.
+     */
+    public List<List<TypeName>> stronglyConnectedComponents() {
+        Map<TypeName, Integer> index = new HashMap<>();
+        Map<TypeName, Integer> lowLink = new HashMap<>();
+        Set<TypeName> onStack = new HashSet<>();
+        Deque<TypeName> stack = new ArrayDeque<>();
+        List<List<TypeName>> components = new ArrayList<>();
+
+        Deque<Frame> callStack = new ArrayDeque<>();
+        for (TypeName root : edges.keySet()) {
+            if (index.containsKey(root)) {
+                continue;
+            }
+            callStack.push(new Frame(root, references(root)));
+            index.put(root, index.size());
+            lowLink.put(root, index.get(root));
+            stack.push(root);
+            onStack.add(root);
+
+            while (!callStack.isEmpty()) {
+                Frame frame = callStack.peek();
+                if (frame.successors.hasNext()) {
+                    TypeName successor = frame.successors.next();
+                    if (!index.containsKey(successor)) {
+                        index.put(successor, index.size());
+                        lowLink.put(successor, index.get(successor));
+                        stack.push(successor);
+                        onStack.add(successor);
+                        callStack.push(new Frame(successor, references(successor)));
+                    } else if (onStack.contains(successor)) {
+                        lowLink.put(frame.type, Math.min(lowLink.get(frame.type), index.get(successor)));
+                    }
+                    continue;
+                }
+
+                callStack.pop();
+                if (lowLink.get(frame.type).equals(index.get(frame.type))) {
+                    List<TypeName> component = new ArrayList<>();
+                    TypeName member;
+                    do {
+                        member = stack.pop();
+                        onStack.remove(member);
+                        component.add(member);
+                    } while (!member.equals(frame.type));
+                    Collections.reverse(component);
+                    components.add(component);
+                }
+                if (!callStack.isEmpty()) {
+                    TypeName parent = callStack.peek().type;
+                    lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(frame.type)));
+                }
+            }
+        }
+        return components;
+    }
+
+    /**
+     * Returns a cycle for each strongly connected component which contains one, i.e. each component of more than one
+     * type or whose single type references itself. Each cycle starts and ends with the member of its component which
+     * is defined first, and cycles are ordered by that type.
+     */
+    public List<List<TypeName>> cycles() {
+        Map<TypeName, Integer> order = new HashMap<>();
+        edges.keySet().forEach(type -> order.put(type, order.size()));
+
+        List<List<TypeName>> cycles = new ArrayList<>();
+        for (List<TypeName> component : stronglyConnectedComponents()) {
+            TypeName first = component.stream()
+                    .min((left, right) -> Integer.compare(
+                            order.getOrDefault(left, Integer.MAX_VALUE), order.getOrDefault(right, Integer.MAX_VALUE)))
+                    .get();
+            if (component.size() > 1 || references(first).contains(first)) {
+                cycles.add(cycleThrough(first, ImmutableSet.copyOf(component)));
+            }
+        }
+        cycles.sort((left, right) -> Integer.compare(order.get(left.get(0)), order.get(right.get(0))));
+        return cycles;
+    }
+
+    /** Finds a shortest cycle through the given type within its component with a breadth-first search. */
+    private List<TypeName> cycleThrough(TypeName start, Set<TypeName> component) {
+        Map<TypeName, TypeName> parents = new HashMap<>();
+        Deque<TypeName> queue = new ArrayDeque<>();
+        queue.add(start);
+        while (!queue.isEmpty()) {
+            TypeName current = queue.poll();
+            for (TypeName successor : references(current)) {
+                if (successor.equals(start)) {
+                    List<TypeName> cycle = new ArrayList<>();
+                    cycle.add(start);
+                    for (TypeName type = current; !type.equals(start); type = parents.get(type)) {
+                        cycle.add(type);
+                    }
+                    cycle.add(start);
+                    Collections.reverse(cycle);
+                    return cycle;
+                }
+                if (component.contains(successor) && !parents.containsKey(successor)) {
+                    parents.put(successor, current);
+                    queue.add(successor);
+                }
+            }
+        }
+        throw new IllegalStateException("No cycle through type of a strongly connected component, this is a bug: "
+                + start);
+    }
+
+    private static final class Frame {
+        private final TypeName type;
+        private final Iterator<TypeName> successors;
+
+        Frame(TypeName type, Set<TypeName> successors) {
+            this.type = type;
+            this.successors = successors.iterator();
+        }
+    }
+
+    /** Builds a {@link TypeReferenceGraph} one type definition at a time. */
+    public static final class Builder {
+        private final Map<TypeName, Set<TypeName>> edges = new LinkedHashMap<>();
+
+        public Builder add(TypeDefinition typeDef) {
+            Set<TypeName> references = edges.computeIfAbsent(
+                    typeDef.accept(TypeDefinitionVisitor.TYPE_NAME), name -> new LinkedHashSet<>());
+            if (typeDef.accept(TypeDefinitionVisitor.IS_OBJECT)) {
+                for (FieldDefinition field : typeDef.accept(TypeDefinitionVisitor.OBJECT).getFields()) {
+                    addReference(references, field.getType());
+                }
+            } else if (typeDef.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+                addReference(references, typeDef.accept(TypeDefinitionVisitor.ALIAS).getAlias());
+            }
+            return this;
+        }
+
+        private static void addReference(Set<TypeName> references, Type type) {
+            if (type.accept(TypeVisitor.IS_REFERENCE)) {
+                references.add(type.accept(TypeVisitor.REFERENCE));
+            }
+        }
+
+        public TypeReferenceGraph build() {
+            Map<TypeName, Set<TypeName>> immutableEdges = new LinkedHashMap<>();
+            edges.forEach((type, references) -> immutableEdges.put(type, ImmutableSet.copyOf(references)));
+            return new TypeReferenceGraph(Collections.unmodifiableMap(immutableEdges));
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+/** How the validation units of a compilation, e.g. each endpoint, type definition and error, are run. */
+public enum ValidationMode {
+    /** Each unit is validated on the parsing thread as soon as it is parsed; the first failure is thrown. */
+    SEQUENTIAL,
+
+    /**
+     * Units are validated in parallel once parsing completes. All units run, and the failure of the first failing unit
+     * in source order is thrown, with the failures of later units attached as suppressed exceptions.
+     */
+    PARALLEL,
+
+    /**
+     * Units are validated in parallel once parsing completes, and units after a failing unit in source order are
+     * skipped. The failure of the first failing unit in source order is thrown, as in {@link #SEQUENTIAL} mode.
+     */
+    PARALLEL_FAIL_FAST
+}
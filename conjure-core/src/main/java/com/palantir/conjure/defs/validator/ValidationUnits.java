@@ -0,0 +1,112 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import com.google.common.base.Preconditions;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * Collects the independent validation units of a compilation in source order and runs them according to a
+ * {@link ValidationMode}. A unit is a validation of immutable IR, e.g. {@code EndpointDefinitionValidator.validateAll}
+ * for a single endpoint, which throws if the IR is invalid; units must not depend on each other.
+ *
+ * <p>The outcome does not depend on scheduling: whatever the mode, the failure thrown is that of the first failing
+ * unit in the order the units were added.
+ */
+public final class ValidationUnits {
+
+    private final ValidationMode mode;
+    private final ForkJoinPool pool;
+    private final List<Runnable> units = new ArrayList<>();
+    private boolean validated;
+
+    private ValidationUnits(ValidationMode mode, ForkJoinPool pool) {
+        this.mode = mode;
+        this.pool = pool;
+    }
+
+    /** Returns units which are validated in the given mode, on the common fork-join pool if the mode is parallel. */
+    public static ValidationUnits create(ValidationMode mode) {
+        return create(mode, ForkJoinPool.commonPool());
+    }
+
+    public static ValidationUnits create(ValidationMode mode, ForkJoinPool pool) {
+        return new ValidationUnits(mode, pool);
+    }
+
+    /** Returns units which are validated as soon as they are added. */
+    public static ValidationUnits sequential() {
+        return create(ValidationMode.SEQUENTIAL);
+    }
+
+    /**
+     * Adds a unit: in {@link ValidationMode#SEQUENTIAL} mode it runs immediately, otherwise it runs on
+     * {@link #validate}. Not thread-safe, units are added by the parsing thread.
+     */
+    public void add(Runnable unit) {
+        Preconditions.checkState(!validated, "Units have already been validated");
+        if (mode == ValidationMode.SEQUENTIAL) {
+            unit.run();
+        } else {
+            units.add(unit);
+        }
+    }
+
+    /** Runs the units which have been added, throwing the failure of the first failing unit in source order. */
+    public void validate() {
+        Preconditions.checkState(!validated, "Units have already been validated");
+        validated = true;
+        if (units.isEmpty()) {
+            return;
+        }
+
+        AtomicReferenceArray<RuntimeException> failures = new AtomicReferenceArray<>(units.size());
+        AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+        boolean failFast = mode == ValidationMode.PARALLEL_FAIL_FAST;
+        pool.submit(() -> IntStream.range(0, units.size()).parallel().forEach(index -> {
+            // units before the first failure so far must still run, since one of them may fail too
+            if (failFast && index > firstFailure.get()) {
+                return;
+            }
+            try {
+                units.get(index).run();
+            } catch (RuntimeException e) {
+                failures.set(index, e);
+                firstFailure.accumulateAndGet(index, Math::min);
+            }
+        })).join();
+
+        int first = firstFailure.get();
+        if (first == Integer.MAX_VALUE) {
+            return;
+        }
+        RuntimeException failure = failures.get(first);
+        if (!failFast) {
+            for (int i = first + 1; i < units.size(); i++) {
+                if (failures.get(i) != null) {
+                    failure.addSuppressed(failures.get(i));
+                }
+            }
+        }
+        throw failure;
+    }
+}
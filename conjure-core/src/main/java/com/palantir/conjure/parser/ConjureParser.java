@@ -23,6 +23,7 @@ import com.fasterxml.jackson.databind.introspect.JacksonAnnotationIntrospector;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
 import com.palantir.conjure.parser.types.TypesDefinition;
 import com.palantir.conjure.parser.types.names.Namespace;
 import com.palantir.conjure.parser.types.reference.ConjureImports;
@@ -30,10 +31,16 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.stream.Collectors;
 
 public final class ConjureParser {
@@ -56,23 +63,120 @@ public final class ConjureParser {
 
     /** Deserializes a {@link ConjureSourceFile} from its YAML representation in the given file. */
     public static ConjureSourceFile parse(File file) {
-        RecursiveParser parser = new RecursiveParser();
-        return parser.parse(file);
+        return parse(ImmutableList.of(file)).get(0);
     }
 
-    private static final class RecursiveParser {
+    /**
+     * Deserializes a {@link ConjureSourceFile} for each of the given files, in the order given. The files and all
+     * their transitive imports are resolved as a single import graph: every file is read exactly once, even if it is
+     * imported by several others or is itself one of the given files, and independent files are read concurrently.
+     */
+    public static List<ConjureSourceFile> parse(Collection<File> files) {
+        return parse(files, ParseCache.disabled());
+    }
+
+    /**
+     * As {@link #parse(Collection)}, but files, including imported ones, are looked up in the given cache before they
+     * are parsed.
+     */
+    public static List<ConjureSourceFile> parse(Collection<File> files, ParseCache parseCache) {
+        return parse(files, file -> parseCache.read(file, MAPPER));
+    }
+
+    @VisibleForTesting
+    static List<ConjureSourceFile> parse(Collection<File> files, SourceFileReader reader) {
+        ImportGraphResolver resolver = new ImportGraphResolver(reader);
+        return resolver.resolve(files);
+    }
+
+    /**
+     * Deserializes a {@link ConjureSourceFile} for each of the given files, in the order given, with the streaming
+     * {@link ConjureSourceFileReader} instead of databind. Imports are resolved depth-first while each file is read,
+     * on the calling thread; as with {@link #parse(Collection)}, every file is read exactly once.
+     */
+    public static List<ConjureSourceFile> parseStreaming(Collection<File> files) {
+        StreamingImportResolver resolver = new StreamingImportResolver();
+        return files.stream().map(resolver::read).collect(Collectors.toList());
+    }
+
+    private static final class StreamingImportResolver {
+        private final Map<String, ConjureSourceFile> cache = new HashMap<>();
+        private final Set<String> currentDepthFirstPath = new LinkedHashSet<>(); // maintain order to print the cycle
+
+        ConjureSourceFile read(File file) {
+            // as in ImportGraphResolver#link, don't use computeIfAbsent since read recurses into the imports
+            ConjureSourceFile result = cache.get(file.getAbsolutePath());
+            if (result != null) {
+                return result;
+            }
+
+            if (!currentDepthFirstPath.add(file.getAbsolutePath())) {
+                String cycle = currentDepthFirstPath.stream().reduce("", (left, right) -> left + " -> " + right)
+                        + " -> " + file.getAbsolutePath();
+                throw new CyclicImportException(cycle);
+            }
+            if (!Files.exists(file.toPath())) {
+                throw new ImportNotFoundException(file);
+            }
+
+            Path baseDir = file.toPath().getParent();
+            try {
+                result = ConjureSourceFileReader.read(file, importedFile -> ConjureImports.withResolvedImports(
+                        importedFile, read(baseDir.resolve(importedFile).toFile())));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+            currentDepthFirstPath.remove(file.getAbsolutePath());
+            cache.put(file.getAbsolutePath(), result);
+            return result;
+        }
+    }
+
+    /** Reads a single {@link ConjureSourceFile}, without resolving its imports. */
+    @VisibleForTesting
+    interface SourceFileReader {
+        ConjureSourceFile read(File file) throws IOException;
+    }
+
+    private static final class ImportGraphResolver {
+        private final Set<String> discovered;
+        private final Map<String, ParsedFile> parsed;
         private final Map<String, ConjureSourceFile> cache;
         private final Set<String> currentDepthFirstPath;
+        private final SourceFileReader reader;
 
-        private RecursiveParser() {
+        private ImportGraphResolver(SourceFileReader reader) {
+            this.discovered = ConcurrentHashMap.newKeySet();
+            this.parsed = new ConcurrentHashMap<>();
             this.cache = new HashMap<>();
             this.currentDepthFirstPath = new LinkedHashSet<>(); // maintain order so we can print the cycle
+            this.reader = reader;
         }
 
-        ConjureSourceFile parse(File file) {
+        List<ConjureSourceFile> resolve(Collection<File> files) {
+            List<ParseTask> roots = files.stream()
+                    .filter(file -> discovered.add(file.getAbsolutePath()))
+                    .map(ParseTask::new)
+                    .collect(Collectors.toList());
+            try {
+                ForkJoinPool.commonPool().invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(roots);
+                    }
+                });
+            } catch (RuntimeException e) {
+                throw unwrap(e);
+            }
+
+            // All files of the import graph are read at this point, linking them is cheap and single-threaded.
+            return files.stream().map(this::link).collect(Collectors.toList());
+        }
+
+        ConjureSourceFile link(File file) {
             // HashMap.computeIfAbsent does not work with recursion; the size of the map gets corrupted,
             // and if the map gets resized during the recursion, some of the new nodes can be put in wrong
-            // buckets. Therefore don't use computeIfAbsent in parse/parseInternal
+            // buckets. Therefore don't use computeIfAbsent in link/linkInternal
             // See https://bugs.java.com/view_bug.do?bug_id=JDK-8071667
             ConjureSourceFile result = cache.get(file.getAbsolutePath());
             if (result != null) {
@@ -85,12 +189,65 @@ public final class ConjureParser {
                 throw new CyclicImportException(cycle);
             }
 
-            result = parseInternal(file);
+            result = linkInternal(parsed.get(file.getAbsolutePath()));
+            currentDepthFirstPath.remove(file.getAbsolutePath());
             cache.put(file.getAbsolutePath(), result);
             return result;
         }
 
-        private ConjureSourceFile parseInternal(File file) {
+        /**
+         * Replaces the (typically empty) ImportedTypes object for each namespace by an object with inlined/populated
+         * {@link ConjureImports#conjure()} imported definitions}.
+         */
+        private ConjureSourceFile linkInternal(ParsedFile parsedFile) {
+            ConjureSourceFile definition = parsedFile.definition;
+            if (definition.types().conjureImports().isEmpty()) {
+                return definition;
+            }
+
+            Map<Namespace, ConjureImports> imports = definition.types().conjureImports().entrySet().stream()
+                    .collect(Collectors.toMap(Map.Entry::getKey, entry -> {
+                        String importedFile = entry.getValue().file();
+                        ConjureSourceFile importedConjure = link(parsedFile.resolve(importedFile));
+                        return ConjureImports.withResolvedImports(importedFile, importedConjure);
+                    }));
+            return ConjureSourceFile.builder()
+                    .from(definition)
+                    .types(TypesDefinition.builder()
+                            .from(definition.types())
+                            .conjureImports(imports)
+                            .build())
+                    .build();
+        }
+
+        /**
+         * Reads a single file and forks a task for every import which has not been discovered yet, so that each
+         * absolute path is read exactly once regardless of how many files import it.
+         */
+        private final class ParseTask extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+
+            private final File file;
+
+            ParseTask(File file) {
+                this.file = file;
+            }
+
+            @Override
+            protected void compute() {
+                ParsedFile parsedFile = parseInternal(file);
+                parsed.put(file.getAbsolutePath(), parsedFile);
+
+                List<ParseTask> imports = parsedFile.definition.types().conjureImports().values().stream()
+                        .map(conjureImport -> parsedFile.resolve(conjureImport.file()))
+                        .filter(importedFile -> discovered.add(importedFile.getAbsolutePath()))
+                        .map(ParseTask::new)
+                        .collect(Collectors.toList());
+                invokeAll(imports);
+            }
+        }
+
+        private ParsedFile parseInternal(File file) {
             // Note(rfink): The mechanism of parsing the ConjureSourceFile and the imports separately isn't pretty,
             // but it's better than the previous implementation where ConjureImports types were passed around all
             // over the place. Main obstacle to simpler parsing is that Jackson parsers don't have context, i.e., it's
@@ -100,39 +257,48 @@ public final class ConjureParser {
             }
 
             try {
-                ConjureSourceFile definition = MAPPER.readValue(file, ConjureSourceFile.class);
-                Map<Namespace, ConjureImports> imports =
-                        parseImports(definition.types().conjureImports(), file.toPath().getParent());
-                return ConjureSourceFile.builder()
-                        .from(definition)
-                        .types(TypesDefinition.builder()
-                                .from(definition.types())
-                                .conjureImports(imports)
-                                .build())
-                        .build();
+                return new ParsedFile(file.toPath().getParent(), reader.read(file));
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
         }
 
         /**
-         * Replaces the (typically empty) ImportedTypes object for each namespace by an object with inlined/populated
-         * {@link ConjureImports#conjure()} imported definitions}.
+         * {@link ForkJoinTask#join} rethrows exceptions raised on another worker thread as a new instance of the same
+         * type which wraps the original one; surface the original so that callers see the same exception as before.
          */
-        private Map<Namespace, ConjureImports> parseImports(
-                Map<Namespace, ConjureImports> declaredImports, Path baseDir) {
-            return declaredImports.entrySet().stream().collect(Collectors.toMap(Map.Entry::getKey, entry -> {
-                String importedFile = entry.getValue().file();
-                ConjureSourceFile importedConjure = parse(baseDir.resolve(importedFile).toFile());
-                return ConjureImports.withResolvedImports(importedFile, importedConjure);
-            }));
+        private static RuntimeException unwrap(RuntimeException exception) {
+            RuntimeException current = exception;
+            while (current.getCause() instanceof RuntimeException
+                    && current.getCause().getClass().equals(current.getClass())) {
+                current = (RuntimeException) current.getCause();
+            }
+            return current;
+        }
+    }
+
+    private static final class ParsedFile {
+        private final Path baseDir;
+        private final ConjureSourceFile definition;
+
+        ParsedFile(Path baseDir, ConjureSourceFile definition) {
+            this.baseDir = baseDir;
+            this.definition = definition;
         }
 
+        File resolve(String importedFile) {
+            return baseDir.resolve(importedFile).toFile();
+        }
     }
 
     @VisibleForTesting
     static ObjectMapper createConjureParserObjectMapper() {
-        ObjectMapper mapper = new ObjectMapper(new YAMLFactory())
+        return configureConjureParserObjectMapper(new ObjectMapper(new YAMLFactory()));
+    }
+
+    /** Configures the given mapper to deserialize {@link ConjureSourceFile}s, whatever its data format. */
+    static ObjectMapper configureConjureParserObjectMapper(ObjectMapper objectMapper) {
+        ObjectMapper mapper = objectMapper
                 .registerModule(new Jdk8Module())
                 .setAnnotationIntrospector(
                         AnnotationIntrospector.pair(
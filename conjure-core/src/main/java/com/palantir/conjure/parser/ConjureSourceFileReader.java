@@ -0,0 +1,599 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.exc.MismatchedInputException;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.validator.NameRecognizers;
+import com.palantir.conjure.parser.services.ArgumentDefinition;
+import com.palantir.conjure.parser.services.AuthDefinition;
+import com.palantir.conjure.parser.services.EndpointDefinition;
+import com.palantir.conjure.parser.services.ParameterName;
+import com.palantir.conjure.parser.services.PathString;
+import com.palantir.conjure.parser.services.RequestLineDefinition;
+import com.palantir.conjure.parser.services.ServiceDefinition;
+import com.palantir.conjure.parser.types.BaseObjectTypeDefinition;
+import com.palantir.conjure.parser.types.ConjureType;
+import com.palantir.conjure.parser.types.NamedTypesDefinition;
+import com.palantir.conjure.parser.types.TypesDefinition;
+import com.palantir.conjure.parser.types.complex.EnumTypeDefinition;
+import com.palantir.conjure.parser.types.complex.EnumValueDefinition;
+import com.palantir.conjure.parser.types.complex.ErrorTypeDefinition;
+import com.palantir.conjure.parser.types.complex.FieldDefinition;
+import com.palantir.conjure.parser.types.complex.ObjectTypeDefinition;
+import com.palantir.conjure.parser.types.complex.UnionTypeDefinition;
+import com.palantir.conjure.parser.types.names.ConjurePackage;
+import com.palantir.conjure.parser.types.names.ErrorCode;
+import com.palantir.conjure.parser.types.names.ErrorNamespace;
+import com.palantir.conjure.parser.types.names.FieldName;
+import com.palantir.conjure.parser.types.names.Namespace;
+import com.palantir.conjure.parser.types.names.TypeName;
+import com.palantir.conjure.parser.types.primitive.PrimitiveType;
+import com.palantir.conjure.parser.types.reference.AliasTypeDefinition;
+import com.palantir.conjure.parser.types.reference.ConjureImports;
+import com.palantir.conjure.parser.types.reference.ExternalTypeDefinition;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.parsec.ParseException;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Deserializes a {@link ConjureSourceFile} from the token stream of a {@link JsonParser}, building the parser model
+ * in a single pass without databind's reflective introspection. Conjure imports are resolved while they are read
+ * through an {@link ImportContext}, so that the result needs no further copying once the imports are known.
+ *
+ * <p>Unknown and non-kebab-case keys are rejected with an {@link UnrecognizedPropertyException} and duplicate keys
+ * with the parser's duplicate detection, as with the databind-based {@link ConjureParser} mapper.
+ */
+public final class ConjureSourceFileReader {
+
+    private static final YAMLFactory YAML_FACTORY = (YAMLFactory) new YAMLFactory()
+            .enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION);
+
+    private static final List<Object> SOURCE_FILE_FIELDS = fields("types", "services");
+    private static final List<Object> TYPES_FIELDS = fields("imports", "conjure-imports", "definitions");
+    private static final List<Object> NAMED_TYPES_FIELDS = fields("default-package", "objects", "errors");
+    private static final List<Object> EXTERNAL_TYPE_FIELDS = fields("external", "base-type");
+    private static final List<Object> EXTERNAL_IMPORT_FIELDS = fields("java");
+    private static final List<Object> OBJECT_FIELDS = fields("package", "docs", "fields");
+    private static final List<Object> ENUM_FIELDS = fields("package", "docs", "values");
+    private static final List<Object> ALIAS_FIELDS = fields("package", "docs", "alias");
+    private static final List<Object> UNION_FIELDS = fields("package", "docs", "union");
+    private static final List<Object> ERROR_FIELDS =
+            fields("package", "docs", "namespace", "code", "safe-args", "unsafe-args");
+    private static final List<Object> ENUM_VALUE_FIELDS = fields("value", "docs");
+    private static final List<Object> FIELD_FIELDS = fields("type", "docs");
+    private static final List<Object> SERVICE_FIELDS =
+            fields("name", "package", "docs", "default-auth", "base-path", "endpoints");
+    private static final List<Object> ENDPOINT_FIELDS =
+            fields("http", "auth", "args", "markers", "returns", "docs", "deprecated");
+    private static final List<Object> ARGUMENT_FIELDS = fields("type", "docs", "param-id", "param-type", "markers");
+
+    private ConjureSourceFileReader() {}
+
+    /** Resolves the {@code conjure-imports} of a file as they are read. */
+    @FunctionalInterface
+    public interface ImportContext {
+        /** Leaves imports unresolved, as the databind-based mapper does. */
+        ImportContext UNRESOLVED = ConjureImports::fromFile;
+
+        /**
+         * Returns the imports declared by the given file path, relative to the directory of the importing file.
+         */
+        ConjureImports resolve(String importedFile);
+    }
+
+    /** Reads the {@link ConjureSourceFile} in the given YAML file. */
+    public static ConjureSourceFile read(File file, ImportContext context) throws IOException {
+        try (JsonParser parser = YAML_FACTORY.createParser(file)) {
+            return read(parser, context);
+        }
+    }
+
+    /** Reads the {@link ConjureSourceFile} in the given YAML string. */
+    public static ConjureSourceFile read(String yaml, ImportContext context) throws IOException {
+        try (JsonParser parser = YAML_FACTORY.createParser(yaml)) {
+            return read(parser, context);
+        }
+    }
+
+    /** Reads the {@link ConjureSourceFile} starting at the next token of the given parser. */
+    public static ConjureSourceFile read(JsonParser parser, ImportContext context) throws IOException {
+        if (parser.nextToken() == null) {
+            throw MismatchedInputException.from(parser, ConjureSourceFile.class,
+                    "No content to map due to end-of-input");
+        }
+        return new Reader(parser, context).sourceFile();
+    }
+
+    private static final class Reader {
+        private final JsonParser parser;
+        private final ImportContext context;
+
+        Reader(JsonParser parser, ImportContext context) {
+            this.parser = parser;
+            this.context = context;
+        }
+
+        ConjureSourceFile sourceFile() throws IOException {
+            ConjureSourceFile.Builder builder = ConjureSourceFile.builder();
+            readObject(ConjureSourceFile.class, SOURCE_FILE_FIELDS, name -> {
+                switch (name) {
+                    case "types":
+                        builder.types(types());
+                        return true;
+                    case "services":
+                        readMap(ConjureSourceFile.class, TypeName::of, this::service, builder::putServices);
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private TypesDefinition types() throws IOException {
+            TypesDefinition.Builder builder = TypesDefinition.builder();
+            readObject(TypesDefinition.class, TYPES_FIELDS, name -> {
+                switch (name) {
+                    case "imports":
+                        readMap(TypesDefinition.class, TypeName::of, this::externalType, builder::putImports);
+                        return true;
+                    case "conjure-imports":
+                        readMap(TypesDefinition.class, Namespace::of,
+                                () -> context.resolve(string(ConjureImports.class)), builder::putConjureImports);
+                        return true;
+                    case "definitions":
+                        builder.definitions(namedTypes());
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private NamedTypesDefinition namedTypes() throws IOException {
+            NamedTypesDefinition.Builder builder = NamedTypesDefinition.builder();
+            readObject(NamedTypesDefinition.class, NAMED_TYPES_FIELDS, name -> {
+                switch (name) {
+                    case "default-package":
+                        if (!isNull()) {
+                            builder.defaultConjurePackage(ConjurePackage.of(string(ConjurePackage.class)));
+                        }
+                        return true;
+                    case "objects":
+                        readMap(NamedTypesDefinition.class, TypeName::of, this::baseObject, builder::putObjects);
+                        return true;
+                    case "errors":
+                        readMap(NamedTypesDefinition.class, TypeName::of,
+                                this::error, builder::putErrors);
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private ExternalTypeDefinition externalType() throws IOException {
+            String[] external = new String[1];
+            PrimitiveType[] baseType = {PrimitiveType.ANY};
+            readObject(ExternalTypeDefinition.class, EXTERNAL_TYPE_FIELDS, name -> {
+                switch (name) {
+                    case "external":
+                        external[0] = externalImport();
+                        return true;
+                    case "base-type":
+                        baseType[0] = PrimitiveType.fromString(string(PrimitiveType.class));
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            Preconditions.checkState(external[0] != null,
+                    "Cannot build ExternalTypeDefinition, some of required attributes are not set [external]");
+            return ExternalTypeDefinition.javaType(external[0], baseType[0]);
+        }
+
+        private String externalImport() throws IOException {
+            String[] java = new String[1];
+            readObject(ExternalTypeDefinition.class, EXTERNAL_IMPORT_FIELDS, name -> {
+                if (name.equals("java")) {
+                    java[0] = string(String.class);
+                    return true;
+                }
+                return false;
+            });
+            Preconditions.checkState(java[0] != null,
+                    "Cannot build ExternalImportDefinition, some of required attributes are not set [java]");
+            return java[0];
+        }
+
+        /**
+         * Reads a type definition, whose kind is only known once all of its keys are read: the keys of all kinds are
+         * collected first and the keys which do not belong to the resulting kind are rejected afterwards.
+         */
+        private BaseObjectTypeDefinition baseObject() throws IOException {
+            ObjectFields fields = new ObjectFields();
+            readObject(BaseObjectTypeDefinition.class, ImmutableList.of(), fields::read);
+            if (fields.present.contains("fields")) {
+                fields.checkKnown(ObjectTypeDefinition.class, OBJECT_FIELDS);
+                return ObjectTypeDefinition.builder()
+                        .conjurePackage(fields.conjurePackage)
+                        .docs(fields.docs)
+                        .putAllFields(fields.fields)
+                        .build();
+            } else if (fields.present.contains("values")) {
+                fields.checkKnown(EnumTypeDefinition.class, ENUM_FIELDS);
+                return EnumTypeDefinition.builder()
+                        .conjurePackage(fields.conjurePackage)
+                        .docs(fields.docs)
+                        .addAllValues(fields.values)
+                        .build();
+            } else if (fields.present.contains("alias")) {
+                fields.checkKnown(AliasTypeDefinition.class, ALIAS_FIELDS);
+                return AliasTypeDefinition.builder()
+                        .conjurePackage(fields.conjurePackage)
+                        .docs(fields.docs)
+                        .alias(fields.alias)
+                        .build();
+            } else if (fields.present.contains("union")) {
+                fields.checkKnown(UnionTypeDefinition.class, UNION_FIELDS);
+                return UnionTypeDefinition.builder()
+                        .conjurePackage(fields.conjurePackage)
+                        .docs(fields.docs)
+                        .putAllUnion(fields.union)
+                        .build();
+            } else if (fields.present.contains("namespace")) {
+                return error(fields);
+            } else {
+                throw new SafeIllegalArgumentException(
+                        "Unrecognized definition, types must have either fields, values or an alias defined.");
+            }
+        }
+
+        private ErrorTypeDefinition error() throws IOException {
+            ObjectFields fields = new ObjectFields();
+            readObject(ErrorTypeDefinition.class, ImmutableList.of(), fields::read);
+            return error(fields);
+        }
+
+        private ErrorTypeDefinition error(ObjectFields fields) throws UnrecognizedPropertyException {
+            fields.checkKnown(ErrorTypeDefinition.class, ERROR_FIELDS);
+            return ErrorTypeDefinition.builder()
+                    .conjurePackage(fields.conjurePackage)
+                    .docs(fields.docs)
+                    .namespace(fields.namespace)
+                    .code(fields.code)
+                    .putAllSafeArgs(fields.safeArgs)
+                    .putAllUnsafeArgs(fields.unsafeArgs)
+                    .build();
+        }
+
+        private EnumValueDefinition enumValue() throws IOException {
+            if (parser.currentToken().isScalarValue()) {
+                return EnumValueDefinition.builder().value(string(EnumValueDefinition.class)).build();
+            }
+            EnumValueDefinition.Builder builder = EnumValueDefinition.builder();
+            readObject(EnumValueDefinition.class, ENUM_VALUE_FIELDS, name -> {
+                switch (name) {
+                    case "value":
+                        builder.value(string(EnumValueDefinition.class));
+                        return true;
+                    case "docs":
+                        builder.docs(optionalString());
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private FieldDefinition field() throws IOException {
+            if (parser.currentToken().isScalarValue()) {
+                return FieldDefinition.of(type());
+            }
+            FieldDefinition.Builder builder = FieldDefinition.builder();
+            readObject(FieldDefinition.class, FIELD_FIELDS, name -> {
+                switch (name) {
+                    case "type":
+                        builder.type(type());
+                        return true;
+                    case "docs":
+                        builder.docs(optionalString());
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        @SuppressWarnings("deprecation") // the service name is unused but still part of the grammar
+        private ServiceDefinition service() throws IOException {
+            ServiceDefinition.Builder builder = ServiceDefinition.builder();
+            readObject(ServiceDefinition.class, SERVICE_FIELDS, name -> {
+                switch (name) {
+                    case "name":
+                        builder.doNotUseName(string(ServiceDefinition.class));
+                        return true;
+                    case "package":
+                        builder.conjurePackage(ConjurePackage.of(string(ConjurePackage.class)));
+                        return true;
+                    case "docs":
+                        builder.docs(optionalString());
+                        return true;
+                    case "default-auth":
+                        builder.defaultAuth(AuthDefinition.fromString(string(AuthDefinition.class)));
+                        return true;
+                    case "base-path":
+                        builder.basePath(PathString.of(string(PathString.class)));
+                        return true;
+                    case "endpoints":
+                        readMap(ServiceDefinition.class, Function.identity(), this::endpoint, builder::putEndpoints);
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private EndpointDefinition endpoint() throws IOException {
+            EndpointDefinition.Builder builder = EndpointDefinition.builder();
+            readObject(EndpointDefinition.class, ENDPOINT_FIELDS, name -> {
+                switch (name) {
+                    case "http":
+                        builder.http(RequestLineDefinition.valueOf(string(RequestLineDefinition.class)));
+                        return true;
+                    case "auth":
+                        if (!isNull()) {
+                            builder.auth(AuthDefinition.fromString(string(AuthDefinition.class)));
+                        }
+                        return true;
+                    case "args":
+                        readMap(EndpointDefinition.class, ParameterName::of, this::argument, builder::putArgs);
+                        return true;
+                    case "markers":
+                        readList(EndpointDefinition.class, this::type, builder::addMarkers);
+                        return true;
+                    case "returns":
+                        if (!isNull()) {
+                            builder.returns(type());
+                        }
+                        return true;
+                    case "docs":
+                        builder.docs(optionalString());
+                        return true;
+                    case "deprecated":
+                        builder.deprecated(optionalString());
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private ArgumentDefinition argument() throws IOException {
+            if (parser.currentToken().isScalarValue()) {
+                return ArgumentDefinition.of(type());
+            }
+            ArgumentDefinition.Builder builder = ArgumentDefinition.builder();
+            readObject(ArgumentDefinition.class, ARGUMENT_FIELDS, name -> {
+                switch (name) {
+                    case "type":
+                        builder.type(type());
+                        return true;
+                    case "docs":
+                        builder.docs(optionalString());
+                        return true;
+                    case "param-id":
+                        if (!isNull()) {
+                            builder.paramId(ParameterName.of(string(ParameterName.class)));
+                        }
+                        return true;
+                    case "param-type":
+                        builder.paramType(ArgumentDefinition.ParamType.fromString(
+                                string(ArgumentDefinition.ParamType.class)));
+                        return true;
+                    case "markers":
+                        readList(ArgumentDefinition.class, this::type, builder::addMarkers);
+                        return true;
+                    default:
+                        return false;
+                }
+            });
+            return builder.build();
+        }
+
+        private ConjureType type() throws IOException {
+            String type = string(ConjureType.class);
+            try {
+                return ConjureType.fromString(type);
+            } catch (ParseException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        /** Collects the keys of all kinds of {@link BaseObjectTypeDefinition}. */
+        private final class ObjectFields {
+            private final Set<String> present = new LinkedHashSet<>();
+            private Optional<ConjurePackage> conjurePackage = Optional.empty();
+            private Optional<String> docs = Optional.empty();
+            private final Map<FieldName, FieldDefinition> fields = new LinkedHashMap<>();
+            private final List<EnumValueDefinition> values = new ArrayList<>();
+            private ConjureType alias;
+            private final Map<FieldName, FieldDefinition> union = new LinkedHashMap<>();
+            private ErrorNamespace namespace;
+            private ErrorCode code;
+            private final Map<FieldName, FieldDefinition> safeArgs = new LinkedHashMap<>();
+            private final Map<FieldName, FieldDefinition> unsafeArgs = new LinkedHashMap<>();
+
+            boolean read(String name) throws IOException {
+                present.add(name);
+                switch (name) {
+                    case "package":
+                        conjurePackage = isNull()
+                                ? Optional.empty()
+                                : Optional.of(ConjurePackage.of(string(ConjurePackage.class)));
+                        return true;
+                    case "docs":
+                        docs = optionalString();
+                        return true;
+                    case "fields":
+                        readMap(ObjectTypeDefinition.class, FieldName::of, Reader.this::field, fields::put);
+                        return true;
+                    case "values":
+                        readList(EnumTypeDefinition.class, Reader.this::enumValue, values::add);
+                        return true;
+                    case "alias":
+                        alias = type();
+                        return true;
+                    case "union":
+                        readMap(UnionTypeDefinition.class, FieldName::of, Reader.this::field, union::put);
+                        return true;
+                    case "namespace":
+                        namespace = ErrorNamespace.of(string(ErrorNamespace.class));
+                        return true;
+                    case "code":
+                        code = ErrorCode.of(string(ErrorCode.class));
+                        return true;
+                    case "safe-args":
+                        readMap(ErrorTypeDefinition.class, FieldName::of, Reader.this::field, safeArgs::put);
+                        return true;
+                    case "unsafe-args":
+                        readMap(ErrorTypeDefinition.class, FieldName::of, Reader.this::field, unsafeArgs::put);
+                        return true;
+                    default:
+                        // only known once the kind of the definition is known, see checkKnown
+                        parser.skipChildren();
+                        return true;
+                }
+            }
+
+            void checkKnown(Class<?> target, List<Object> knownFields) throws UnrecognizedPropertyException {
+                for (String name : present) {
+                    if (!knownFields.contains(name)) {
+                        throw UnrecognizedPropertyException.from(parser, target, name, knownFields);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Reads the object at the current token, passing each key to the given handler with the parser positioned at
+         * the key's value. The handler consumes the value and returns false for unknown keys.
+         */
+        private void readObject(Class<?> target, List<Object> knownFields, FieldHandler handler) throws IOException {
+            expect(JsonToken.START_OBJECT, target);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (!handler.read(name)) {
+                    throw UnrecognizedPropertyException.from(parser, target, name, knownFields);
+                }
+            }
+        }
+
+        private <K, V> void readMap(
+                Class<?> target, Function<String, K> keys, ValueReader<V> values, BiConsumer<K, V> sink)
+                throws IOException {
+            expect(JsonToken.START_OBJECT, target);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                K key = keys.apply(parser.getCurrentName());
+                parser.nextToken();
+                expectNotNull(target);
+                sink.accept(key, values.read());
+            }
+        }
+
+        private <V> void readList(Class<?> target, ValueReader<V> values, Consumer<V> sink)
+                throws IOException {
+            expect(JsonToken.START_ARRAY, target);
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                expectNotNull(target);
+                sink.accept(values.read());
+            }
+        }
+
+        private String string(Class<?> target) throws IOException {
+            if (!parser.currentToken().isScalarValue() || isNull()) {
+                throw MismatchedInputException.from(parser, target,
+                        "Cannot deserialize " + target.getSimpleName() + " out of " + parser.currentToken() + " token");
+            }
+            return parser.getText();
+        }
+
+        private Optional<String> optionalString() throws IOException {
+            return isNull() ? Optional.empty() : Optional.of(string(String.class));
+        }
+
+        private boolean isNull() {
+            return parser.currentToken() == JsonToken.VALUE_NULL;
+        }
+
+        private void expect(JsonToken token, Class<?> target) throws IOException {
+            if (parser.currentToken() != token) {
+                throw MismatchedInputException.from(parser, target,
+                        "Cannot deserialize " + target.getSimpleName() + " out of " + parser.currentToken() + " token");
+            }
+        }
+
+        private void expectNotNull(Class<?> target) throws IOException {
+            if (isNull()) {
+                throw MismatchedInputException.from(parser, target,
+                        "Invalid null value for " + target.getSimpleName());
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface FieldHandler {
+        boolean read(String name) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface ValueReader<T> {
+        T read() throws IOException;
+    }
+
+    private static List<Object> fields(String... names) {
+        for (String name : names) {
+            Preconditions.checkArgument(NameRecognizers.isKebabCaseKey(name),
+                    "Conjure grammar requires kebab-case field names: %s", name);
+        }
+        return ImmutableList.copyOf(names);
+    }
+}
@@ -24,7 +24,7 @@ import com.fasterxml.jackson.databind.PropertyName;
 import com.fasterxml.jackson.databind.introspect.Annotated;
 import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
 import com.google.common.base.Preconditions;
-import java.util.regex.Pattern;
+import com.palantir.conjure.defs.validator.NameRecognizers;
 
 /**
  * An {@link AnnotationIntrospector} that is no-op except for the
@@ -34,9 +34,6 @@ import java.util.regex.Pattern;
  */
 public final class KebabCaseEnforcingAnnotationInspector extends AnnotationIntrospector {
 
-    private static final Pattern KEBAB_CASE_PATTERN = Pattern.compile("[a-z]+(-[a-z]+)*");
-
-
     @Override
     public Version version() {
         return VersionUtil.parseVersion("0.0.1", "foo", "bar");
@@ -51,7 +48,7 @@ public final class KebabCaseEnforcingAnnotationInspector extends AnnotationIntro
         JsonProperty propertyAnnotation = _findAnnotation(annotatedEntity, JsonProperty.class);
         if (propertyAnnotation != null) {
             String jsonFieldName = propertyAnnotation.value();
-            Preconditions.checkArgument(KEBAB_CASE_PATTERN.matcher(jsonFieldName).matches(),
+            Preconditions.checkArgument(NameRecognizers.isKebabCaseKey(jsonFieldName),
                     "Conjure grammar requires kebab-case field names: %s", jsonFieldName);
         }
 
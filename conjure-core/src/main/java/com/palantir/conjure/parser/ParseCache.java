@@ -0,0 +1,138 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.hash.Hashing;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An on-disk cache of parsed Conjure source files which persists across compilations. Entries are keyed by a hash of
+ * the bytes of a source file and the version of the compiler, so an entry is never stale: a changed file or compiler
+ * simply misses. Each entry holds the JSON equivalent of the YAML source, which deserializes without the cost of
+ * parsing YAML. A file which misses is parsed as YAML once, into a tree which is both converted and written as its
+ * entry.
+ *
+ * <p>The cache only ever speeds up parsing: unreadable entries are ignored and entries which cannot be written are
+ * skipped. Entries are written atomically, so concurrent compilations may share a directory.
+ */
+public final class ParseCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ParseCache.class);
+
+    // bump whenever the format of the entries changes
+    private static final String FORMAT_VERSION = "1";
+    private static final ObjectMapper JSON_MAPPER =
+            ConjureParser.configureConjureParserObjectMapper(new ObjectMapper());
+    private static final ParseCache DISABLED = new ParseCache(Optional.empty(), "");
+
+    private final Optional<Path> directory;
+    private final String compilerVersion;
+
+    private ParseCache(Optional<Path> directory, String compilerVersion) {
+        this.directory = directory;
+        this.compilerVersion = compilerVersion;
+    }
+
+    /** Returns a cache which parses every file. */
+    public static ParseCache disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Returns a cache which stores its entries in the given directory, creating it if needed. Caching is disabled if
+     * the compiler version is unknown, e.g. when running from an IDE, since entries of different builds would clash.
+     */
+    public static ParseCache inDirectory(Path directory) {
+        String version = ParseCache.class.getPackage().getImplementationVersion();
+        if (version == null) {
+            log.warn("Not caching parsed files in {} since the compiler version is unknown", directory);
+            return DISABLED;
+        }
+        return inDirectory(directory, version);
+    }
+
+    @VisibleForTesting
+    static ParseCache inDirectory(Path directory, String compilerVersion) {
+        return new ParseCache(Optional.of(directory), compilerVersion);
+    }
+
+    /** Deserializes the given file with the given YAML mapper, unless the file has a cache entry. */
+    ConjureSourceFile read(File file, ObjectMapper yamlMapper) throws IOException {
+        if (!directory.isPresent()) {
+            return yamlMapper.readValue(file, ConjureSourceFile.class);
+        }
+
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        Path entry = entry(directory.get(), bytes);
+        if (Files.isRegularFile(entry)) {
+            try {
+                return JSON_MAPPER.readValue(entry.toFile(), ConjureSourceFile.class);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring unreadable parse cache entry {} of file {}", entry, file, e);
+            }
+        }
+
+        // parse the bytes which were hashed rather than the file, in case the file changed in the meantime
+        JsonNode tree = yamlMapper.readTree(bytes);
+        ConjureSourceFile result = yamlMapper.treeToValue(tree, ConjureSourceFile.class);
+        write(entry, tree);
+        return result;
+    }
+
+    private Path entry(Path cacheDirectory, byte[] bytes) {
+        String key = Hashing.sha256().newHasher()
+                .putString(FORMAT_VERSION, StandardCharsets.UTF_8)
+                .putByte((byte) 0)
+                .putString(compilerVersion, StandardCharsets.UTF_8)
+                .putByte((byte) 0)
+                .putBytes(bytes)
+                .hash()
+                .toString();
+        // shard by the first byte of the hash to keep directories small
+        return cacheDirectory.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private static void write(Path entry, JsonNode tree) {
+        Path temporary = null;
+        try {
+            Files.createDirectories(entry.getParent());
+            temporary = Files.createTempFile(entry.getParent(), entry.getFileName().toString(), ".tmp");
+            JSON_MAPPER.writeValue(temporary.toFile(), tree);
+            Files.move(temporary, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write parse cache entry {}", entry, e);
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException suppressed) {
+                    e.addSuppressed(suppressed);
+                }
+            }
+        }
+    }
+}
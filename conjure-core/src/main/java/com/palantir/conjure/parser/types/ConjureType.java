@@ -26,6 +26,6 @@ public interface ConjureType {
     <T> T visit(ConjureTypeVisitor<T> visitor);
 
     static ConjureType fromString(String value) throws ParseException {
-        return TypeParser.INSTANCE.parse(value);
+        return ConjureTypeCache.parse(value);
     }
 }
@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser.types;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.palantir.parsec.ParseException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A thread-safe, size-bounded cache of parsed type strings. Definitions repeat the same type strings many times over;
+ * since {@link ConjureType}s are immutable, identical strings share a single parsed instance. Strings which fail to
+ * parse are not cached.
+ */
+public final class ConjureTypeCache {
+
+    private static final long MAXIMUM_SIZE = 10_000;
+
+    private static final Cache<String, ConjureType> CACHE = CacheBuilder.newBuilder()
+            .maximumSize(MAXIMUM_SIZE)
+            .recordStats()
+            .build();
+
+    private ConjureTypeCache() {}
+
+    /** Returns the shared {@link ConjureType} for the given type string, parsing it on a cache miss. */
+    public static ConjureType parse(String input) throws ParseException {
+        try {
+            return CACHE.get(input, () -> TypeParser.INSTANCE.parse(input));
+        } catch (ExecutionException | UncheckedExecutionException | ExecutionError e) {
+            Throwable cause = e.getCause();
+            Throwables.throwIfInstanceOf(cause, ParseException.class);
+            Throwables.throwIfUnchecked(cause);
+            throw new IllegalStateException("Unexpected exception while parsing type: " + input, cause);
+        }
+    }
+
+    /** Returns the hit and miss counts of the cache since the JVM started. */
+    public static CacheStats stats() {
+        return CACHE.stats();
+    }
+}
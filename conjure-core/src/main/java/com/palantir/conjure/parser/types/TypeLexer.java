@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser.types;
+
+/**
+ * A single-pass scanner over a Conjure type string, providing the tokens of the type grammar: keywords, namespaces,
+ * identifiers, whitespace and the single-character punctuation {@code < > , .}. The scanner only ever moves forward.
+ */
+final class TypeLexer {
+
+    private final String input;
+    private int position = 0;
+
+    TypeLexer(String input) {
+        this.input = input;
+    }
+
+    String input() {
+        return input;
+    }
+
+    int position() {
+        return position;
+    }
+
+    boolean atEnd() {
+        return position >= input.length();
+    }
+
+    /** Returns the current character, or {@code -1} at the end of the input. */
+    int peek() {
+        return atEnd() ? -1 : input.charAt(position);
+    }
+
+    /** Returns the character {@code offset} characters after the current one, or {@code -1} past the input. */
+    int peek(int offset) {
+        int index = position + offset;
+        return index < input.length() ? input.charAt(index) : -1;
+    }
+
+    /** Consumes the given keyword if the remaining input starts with it. */
+    boolean keyword(String keyword) {
+        if (input.startsWith(keyword, position)) {
+            position += keyword.length();
+            return true;
+        }
+        return false;
+    }
+
+    void skipWhitespace() {
+        while (!atEnd() && Character.isWhitespace(input.charAt(position))) {
+            position++;
+        }
+    }
+
+    /**
+     * Consumes the next character, if any, and returns whether it was the expected punctuation. Mirrors
+     * {@link com.palantir.parsec.parsers.ExpectantParser}, which consumes the mismatching character too.
+     */
+    boolean punctuation(char expected) {
+        if (atEnd()) {
+            return false;
+        }
+        return input.charAt(position++) == expected;
+    }
+
+    /** Consumes optional whitespace and the given punctuation if both are present, otherwise consumes nothing. */
+    boolean optionalPunctuation(char expected) {
+        int index = position;
+        while (index < input.length() && Character.isWhitespace(input.charAt(index))) {
+            index++;
+        }
+        if (index < input.length() && input.charAt(index) == expected) {
+            position = index + 1;
+            return true;
+        }
+        return false;
+    }
+
+    /** Returns the length of the run of {@code [a-zA-Z]} characters starting at the current position. */
+    int namespaceLength() {
+        int index = position;
+        while (index < input.length() && isNamespaceCharacter(input.charAt(index))) {
+            index++;
+        }
+        return index - position;
+    }
+
+    /** Consumes and returns the run of Java identifier characters at the current position, or null if empty. */
+    String identifier() {
+        int start = position;
+        while (!atEnd() && Character.isJavaIdentifierPart(input.charAt(position))) {
+            position++;
+        }
+        return position > start ? input.substring(start, position) : null;
+    }
+
+    /** Consumes and returns the next {@code length} characters. */
+    String take(int length) {
+        String result = input.substring(position, position + length);
+        position += length;
+        return result;
+    }
+
+    private static boolean isNamespaceCharacter(char character) {
+        return ('a' <= character && character <= 'z') || ('A' <= character && character <= 'Z');
+    }
+}
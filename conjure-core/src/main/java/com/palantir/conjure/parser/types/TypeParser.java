@@ -40,37 +40,172 @@ import com.palantir.parsec.parsers.RawStringParser;
 public enum TypeParser implements Parser<ConjureType> {
     INSTANCE;
 
+    private static final Parser<ConjureType> TYPE_PARSER = Parsers.dispatch(
+            Parsers.startingWith("map", MapTypeParser.INSTANCE),
+            Parsers.startingWith("list", ListTypeParser.INSTANCE),
+            Parsers.startingWith("set", SetTypeParser.INSTANCE),
+            Parsers.startingWith("optional", OptionalTypeParser.INSTANCE),
+            Parsers.startingWith("any", TypeFromString.of("any", AnyType.of(), AnyType.class)),
+            Parsers.startingWith("binary", TypeFromString.of("binary", BinaryType.of(), BinaryType.class)),
+            Parsers.startingWith("datetime", TypeFromString.of("datetime", DateTimeType.of(), DateTimeType.class)),
+            Parsers.startingWith(ForeignReferenceTypeParser.FIRST_CHARACTERS, ForeignReferenceTypeParser.INSTANCE),
+            Parsers.startingWith(TypeReferenceParser.REF_CHARACTERS, TypeReferenceParser.INSTANCE));
+
+    /**
+     * Parses a complete type string in a single pass with a predictive recursive-descent parser over a
+     * {@link TypeLexer}. Produces the same {@link ConjureType} trees and {@link ParseException} positions as running
+     * {@link #parse(ParserState)} under {@link Parsers#eof}.
+     */
     public ConjureType parse(String input) throws ParseException {
-        ParserState inputParserState = new StringParserState(input);
-        ConjureType resultType = Parsers.eof(typeParser()).parse(inputParserState);
+        TypeLexer lexer = new TypeLexer(input);
+        ConjureType resultType = parseType(lexer);
         if (resultType == null) {
-            throw new ParseException(input, inputParserState);
+            throw new ParseException(input, stateAt(input, 1));
         }
-        return parse(new StringParserState(input));
+        // Parsers.eof consumes one character before checking for the end of the input, hence a single trailing
+        // character has always been tolerated; keep doing so to accept the same definitions.
+        if (lexer.position() + 1 < input.length()) {
+            throw new ParseException(input, stateAt(input, lexer.position() + 1));
+        }
+        return resultType;
     }
 
     @Override
     public ConjureType parse(ParserState input) throws ParseException {
-        return typeParser().parse(input);
+        return TYPE_PARSER.parse(input);
+    }
+
+    /**
+     * Parses a single type at the current position, returning null without consuming any input if no type starts
+     * there. The first characters determine the production: a keyword commits to its production even if it is only
+     * the prefix of a longer name, as the combinator parser always did.
+     */
+    private static ConjureType parseType(TypeLexer lexer) throws ParseException {
+        switch (lexer.peek()) {
+            case 'm':
+                if (lexer.keyword("map")) {
+                    return parseMap(lexer);
+                }
+                break;
+            case 'l':
+                if (lexer.keyword("list")) {
+                    return ListType.of(parseTypeArgument(lexer));
+                }
+                break;
+            case 's':
+                if (lexer.keyword("set")) {
+                    return SetType.of(parseTypeArgument(lexer));
+                }
+                break;
+            case 'o':
+                if (lexer.keyword("optional")) {
+                    return OptionalType.of(parseTypeArgument(lexer));
+                }
+                break;
+            case 'a':
+                if (lexer.keyword("any")) {
+                    return AnyType.of();
+                }
+                break;
+            case 'b':
+                if (lexer.keyword("binary")) {
+                    return BinaryType.of();
+                }
+                break;
+            case 'd':
+                if (lexer.keyword("datetime")) {
+                    return DateTimeType.of();
+                }
+                break;
+            default:
+                break;
+        }
+        return parseReference(lexer);
+    }
+
+    private static ConjureType parseReference(TypeLexer lexer) throws ParseException {
+        int namespaceLength = lexer.namespaceLength();
+        if (lexer.peek(namespaceLength) == '.') {
+            if (namespaceLength == 0) {
+                throw new ParseException("Expected namespace", stateAt(lexer.input(), lexer.position()));
+            }
+            Namespace namespace = Namespace.of(lexer.take(namespaceLength));
+            lexer.punctuation('.');
+            int referencePosition = lexer.position();
+            String reference = lexer.identifier();
+            if (reference == null) {
+                throw new ParseException("Expected type name", stateAt(lexer.input(), referencePosition));
+            }
+            return ForeignReferenceType.of(namespace, TypeName.of(reference));
+        }
+
+        String reference = lexer.identifier();
+        return reference == null ? null : LocalReferenceType.of(TypeName.of(reference));
     }
 
-    private Parser<ConjureType> typeParser() {
-        return Parsers.or(
-                MapTypeParser.INSTANCE,
-                ListTypeParser.INSTANCE,
-                SetTypeParser.INSTANCE,
-                OptionalTypeParser.INSTANCE,
-                TypeFromString.of("any", AnyType.of(), AnyType.class),
-                TypeFromString.of("binary", BinaryType.of(), BinaryType.class),
-                TypeFromString.of("datetime", DateTimeType.of(), DateTimeType.class),
-                ForeignReferenceTypeParser.INSTANCE,
-                TypeReferenceParser.INSTANCE);
+    /** Parses {@code <T>}, allowing whitespace around each token. */
+    private static ConjureType parseTypeArgument(TypeLexer lexer) throws ParseException {
+        expectStartToken(lexer);
+        lexer.skipWhitespace();
+        int itemPosition = lexer.position();
+        ConjureType itemType = parseType(lexer);
+        expectEndToken(lexer);
+        if (itemType == null) {
+            throw new ParseException("Expected type", stateAt(lexer.input(), itemPosition));
+        }
+        return itemType;
+    }
+
+    /** Parses {@code <K, V>}, allowing whitespace around each token. */
+    private static MapType parseMap(TypeLexer lexer) throws ParseException {
+        expectStartToken(lexer);
+        lexer.skipWhitespace();
+        int keyPosition = lexer.position();
+        ConjureType keyType = parseType(lexer);
+        ConjureType valueType = null;
+        if (keyType != null && lexer.optionalPunctuation(',')) {
+            int valuePosition = lexer.position();
+            lexer.skipWhitespace();
+            valueType = parseType(lexer);
+            if (valueType == null) {
+                throw new ParseException("Found key '" + keyType + "' without associated value.",
+                        stateAt(lexer.input(), valuePosition));
+            }
+        }
+        expectEndToken(lexer);
+        if (valueType == null) {
+            throw new ParseException("Expected type", stateAt(lexer.input(), keyPosition));
+        }
+        return MapType.of(keyType, valueType);
+    }
+
+    private static void expectStartToken(TypeLexer lexer) throws ParseException {
+        lexer.skipWhitespace();
+        if (!lexer.punctuation('<')) {
+            throw new ParseException("Expected startToken", stateAt(lexer.input(), lexer.position()));
+        }
+    }
+
+    private static void expectEndToken(TypeLexer lexer) throws ParseException {
+        lexer.skipWhitespace();
+        if (!lexer.punctuation('>')) {
+            throw new ParseException("Expected endToken", stateAt(lexer.input(), lexer.position()));
+        }
+    }
+
+    /** Creates the parser state an equivalent combinator parse would have been in at the given position. */
+    private static ParserState stateAt(String input, int position) {
+        ParserState state = new StringParserState(input);
+        for (int i = 0; i < position; i++) {
+            state.next();
+        }
+        return state;
     }
 
     private enum TypeReferenceParser implements Parser<LocalReferenceType> {
         INSTANCE;
 
-        public static final Parser<String> REF_PARSER = new RawStringParser(
+        public static final RawStringParser.AllowableCharacters REF_CHARACTERS =
                 new RawStringParser.AllowableCharacters() {
                     @Override
                     public boolean isAllowed(char character) {
@@ -81,7 +216,9 @@ public enum TypeParser implements Parser<ConjureType> {
                     public String getDescription() {
                         return "Character is an allowable Java identifier character";
                     }
-                });
+                };
+
+        public static final Parser<String> REF_PARSER = new RawStringParser(REF_CHARACTERS);
 
         @Override
         public LocalReferenceType parse(ParserState input) throws ParseException {
@@ -114,6 +251,21 @@ public enum TypeParser implements Parser<ConjureType> {
                     }
                 });
 
+        // a foreign reference starts with its namespace, or directly with the '.' if the namespace is missing
+        public static final RawStringParser.AllowableCharacters FIRST_CHARACTERS =
+                new RawStringParser.AllowableCharacters() {
+                    @Override
+                    public boolean isAllowed(char character) {
+                        return character == '.' || ('a' <= character && character <= 'z')
+                                || ('A' <= character && character <= 'Z');
+                    }
+
+                    @Override
+                    public String getDescription() {
+                        return "Character is one of [a-zA-Z.]";
+                    }
+                };
+
         @Override
         public ForeignReferenceType parse(ParserState input) throws ParseException {
             String namespace = NAMESPACE_PARSER.parse(input);
@@ -38,9 +38,15 @@ public interface FieldDefinition {
     Optional<String> docs();
 
     static FieldDefinition of(ConjureType type) {
-        return ImmutableFieldDefinition.builder().type(type).build();
+        return builder().type(type).build();
     }
 
+    static Builder builder() {
+        return new Builder();
+    }
+
+    class Builder extends ImmutableFieldDefinition.Builder {}
+
     // solve Jackson sad-times for multiple parser
     class FieldDefinitionDeserializer extends JsonDeserializer<FieldDefinition> {
         @SuppressWarnings("deprecation")
@@ -48,13 +48,11 @@ public abstract class FieldName {
         CaseConverter.Case snakeCase = CaseConverter.Case.SNAKE_CASE;
 
         Preconditions.checkArgument(
-                lowerCamelCase.getPattern().matcher(name()).matches()
-                        || kebabCase.getPattern().matcher(name()).matches()
-                        || snakeCase.getPattern().matcher(name()).matches(),
+                CaseConverter.isAnyCase(name()),
                 "FieldName \"%s\" must follow one of the following patterns: %s %s %s",
                 name(), lowerCamelCase, kebabCase, snakeCase);
 
-        if (!lowerCamelCase.getPattern().matcher(name()).matches()) {
+        if (!lowerCamelCase.matches(name())) {
             log.warn("{} should be specified in lowerCamelCase. kebab-case and snake_case are supported for "
                     + "legacy endpoints only: {}", FieldName.class, name());
         }
@@ -64,7 +62,7 @@ public abstract class FieldName {
     @Value.Lazy
     protected CaseConverter.Case nameCase() {
         for (CaseConverter.Case nameCase : CaseConverter.Case.values()) {
-            if (nameCase.getPattern().matcher(name()).matches()) {
+            if (nameCase.matches(name())) {
                 return nameCase;
             }
         }
@@ -21,6 +21,7 @@ import com.fasterxml.jackson.annotation.JsonValue;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableSet;
 import com.palantir.conjure.defs.ConjureImmutablesStyle;
+import com.palantir.conjure.defs.validator.NameRecognizers;
 import com.palantir.conjure.parser.types.NamedTypesDefinition;
 import java.util.regex.Pattern;
 import org.immutables.value.Value;
@@ -44,7 +45,7 @@ public abstract class TypeName {
     @Value.Check
     protected final void check() {
         Preconditions.checkArgument(
-                CUSTOM_TYPE_PATTERN.matcher(name()).matches() || PRIMITIVE_TYPES.contains(name()),
+                NameRecognizers.isTypeName(name()) || PRIMITIVE_TYPES.contains(name()),
                 "TypeNames must be a primitive type %s or match pattern %s: %s",
                 PRIMITIVE_TYPES, CUSTOM_TYPE_PATTERN, name());
     }
@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A {@link ParserState} over a {@code char[]} which does not allocate while parsing: marks are kept on a primitive
+ * int stack and the line and column of the current position are tracked incrementally as characters are consumed.
+ * Lines and columns are 1-based; {@link #getCharPosition()} is the 0-based offset into the input.
+ */
+public final class CharArrayParserState implements ParserState {
+
+    private static final int MARK_SIZE = 3;
+
+    private final char[] chars;
+    private int current = 0;
+    private int line = 1;
+    private int column = 1;
+
+    // (position, line, column) triples
+    private int[] marks = new int[MARK_SIZE * 8];
+    private int markCount = 0;
+
+    /** Creates a state over the given characters, which must not be modified while parsing. */
+    public CharArrayParserState(char[] chars) {
+        this.chars = chars;
+    }
+
+    public CharArrayParserState(CharSequence seq) {
+        this(seq.toString().toCharArray());
+    }
+
+    @Override
+    public int curr() {
+        return current < chars.length ? chars[current] : -1;
+    }
+
+    @Override
+    public int next() {
+        // like StringParserState, current never exceeds the actual length
+        if (current < chars.length) {
+            if (chars[current] == '\n') {
+                line++;
+                column = 1;
+            } else {
+                column++;
+            }
+            current++;
+        }
+        return curr();
+    }
+
+    @Override
+    public void mark() {
+        if (markCount * MARK_SIZE == marks.length) {
+            marks = Arrays.copyOf(marks, marks.length * 2);
+        }
+        int offset = markCount * MARK_SIZE;
+        marks[offset] = current;
+        marks[offset + 1] = line;
+        marks[offset + 2] = column;
+        markCount++;
+    }
+
+    @Override
+    public void rewind() {
+        int offset = pop();
+        current = marks[offset];
+        line = marks[offset + 1];
+        column = marks[offset + 2];
+    }
+
+    @Override
+    public void release() {
+        pop();
+    }
+
+    @Override
+    public int getLine() {
+        return line;
+    }
+
+    @Override
+    public int getCharPosition() {
+        return current;
+    }
+
+    public int getColumn() {
+        return column;
+    }
+
+    /** Moves to a position previously reached by this state, as recorded by {@link PackratParserState}. */
+    void restore(int position, int restoredLine, int restoredColumn) {
+        this.current = position;
+        this.line = restoredLine;
+        this.column = restoredColumn;
+    }
+
+    private int pop() {
+        if (markCount == 0) {
+            throw new NoSuchElementException("No mark to release or rewind to");
+        }
+        markCount--;
+        return markCount * MARK_SIZE;
+    }
+}
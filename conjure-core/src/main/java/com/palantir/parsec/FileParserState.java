@@ -19,18 +19,22 @@ package com.palantir.parsec;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 
 public final class FileParserState implements ParserState {
 
-    private final StringParserState delegate;
+    private final CharArrayParserState delegate;
 
     public FileParserState(File in) {
         try {
-            StringBuilder sb = new StringBuilder(new String(Files.readAllBytes(in.toPath()), StandardCharsets.UTF_8));
+            CharBuffer decoded = StandardCharsets.UTF_8.decode(ByteBuffer.wrap(Files.readAllBytes(in.toPath())));
+            char[] chars = new char[decoded.remaining()];
+            decoded.get(chars);
 
-            delegate = new StringParserState(sb);
+            delegate = new CharArrayParserState(chars);
         } catch (FileNotFoundException e) {
             throw new IllegalArgumentException("Cannot find file '" + in.getAbsolutePath() + "'", e);
         } catch (IOException e) {
@@ -70,7 +74,11 @@ public final class FileParserState implements ParserState {
 
     @Override
     public int getCharPosition() {
-        return delegate.getLine();
+        return delegate.getCharPosition();
+    }
+
+    public int getColumn() {
+        return delegate.getColumn();
     }
 
 }
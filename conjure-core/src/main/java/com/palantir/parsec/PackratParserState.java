@@ -0,0 +1,123 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A {@link CharArrayParserState} which additionally memoizes the parsers wrapped with {@link Parsers#memoize}: the
+ * result and end position of each such parser is recorded per start position, so re-running it at a position it
+ * already ran at (e.g. after an {@link Parsers#or} alternative rewinds) restores the recorded end position instead
+ * of parsing again. This bounds the work of backtracking grammars to linear in the input length ("packrat parsing").
+ *
+ * <p>Memoization lasts for the lifetime of this state, i.e. a single parse. Memoized parsers must not depend on
+ * anything but the input at their start position, and exceptions are never memoized.
+ */
+public final class PackratParserState implements ParserState {
+
+    private final CharArrayParserState delegate;
+    private final int length;
+    private final Map<Parser<?>, MemoEntry[]> memo = new IdentityHashMap<>();
+
+    /** Creates a state over the given characters, which must not be modified while parsing. */
+    public PackratParserState(char[] chars) {
+        this.delegate = new CharArrayParserState(chars);
+        this.length = chars.length;
+    }
+
+    public PackratParserState(CharSequence seq) {
+        this(seq.toString().toCharArray());
+    }
+
+    @Override
+    public int curr() {
+        return delegate.curr();
+    }
+
+    @Override
+    public int next() {
+        return delegate.next();
+    }
+
+    @Override
+    public void mark() {
+        delegate.mark();
+    }
+
+    @Override
+    public void release() {
+        delegate.release();
+    }
+
+    @Override
+    public void rewind() {
+        delegate.rewind();
+    }
+
+    @Override
+    public int getLine() {
+        return delegate.getLine();
+    }
+
+    @Override
+    public int getCharPosition() {
+        return delegate.getCharPosition();
+    }
+
+    public int getColumn() {
+        return delegate.getColumn();
+    }
+
+    /** Runs the parser at the current position unless it already ran there, in which case its outcome is replayed. */
+    <T> T parseMemoized(Parser<T> parser) throws ParseException {
+        // Don't use computeIfAbsent, see JDK-8071667: parsers recursively memoize other parsers.
+        MemoEntry[] entries = memo.get(parser);
+        if (entries == null) {
+            entries = new MemoEntry[length + 1];
+            memo.put(parser, entries);
+        }
+
+        int start = delegate.getCharPosition();
+        MemoEntry entry = entries[start];
+        if (entry == null) {
+            Object result = parser.parse(this);
+            entry = new MemoEntry(result, delegate.getCharPosition(), delegate.getLine(), delegate.getColumn());
+            entries[start] = entry;
+        } else {
+            delegate.restore(entry.position, entry.line, entry.column);
+        }
+
+        @SuppressWarnings("unchecked")
+        T result = (T) entry.result;
+        return result;
+    }
+
+    private static final class MemoEntry {
+        private final Object result;
+        private final int position;
+        private final int line;
+        private final int column;
+
+        MemoEntry(Object result, int position, int line, int column) {
+            this.result = result;
+            this.position = position;
+            this.line = line;
+            this.column = column;
+        }
+    }
+}
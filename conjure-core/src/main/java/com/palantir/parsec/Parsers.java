@@ -19,7 +19,11 @@ package com.palantir.parsec;
 import com.palantir.parsec.parsers.BetweenParser;
 import com.palantir.parsec.parsers.ExpectantParser;
 import com.palantir.parsec.parsers.ExpectationResult;
+import com.palantir.parsec.parsers.FirstCharDispatchingParser;
+import com.palantir.parsec.parsers.FirstCharDispatchingParser.Alternative;
 import com.palantir.parsec.parsers.RawStringParser;
+import java.util.ArrayList;
+import java.util.List;
 
 public final class Parsers {
 
@@ -105,6 +109,99 @@ public final class Parsers {
         };
     }
 
+    /**
+     * Memoizes `parser` when parsing from a {@link PackratParserState}: running it again at a position it already ran
+     * at replays its result and end position instead of parsing again. Other parser states run `parser` as is.
+     *
+     * @param <T> the type the target parser returns
+     * @param parser the target parser to memoize, whose outcome must only depend on the input at its start position
+     * @return the specified parser
+     */
+    public static <T> Parser<T> memoize(final Parser<T> parser) {
+        return new Parser<T>() {
+            @Override
+            public T parse(ParserState input) throws ParseException {
+                if (input instanceof PackratParserState) {
+                    return ((PackratParserState) input).parseMemoized(parser);
+                }
+                return parser.parse(input);
+            }
+
+            @Override
+            public String toString() {
+                return "memoized " + parser.toString();
+            }
+        };
+    }
+
+    /**
+     * Parse using the alternatives whose declared first characters contain the current character, trying them in
+     * order as {@link #or} does. See {@link FirstCharDispatchingParser}.
+     *
+     * @param <T> the type the parsers return
+     * @param firstOption the first alternative
+     * @param otherOptions additional alternatives
+     * @return the specified parser
+     */
+    @SafeVarargs
+    public static <T> Parser<T> dispatch(
+            final Alternative<? extends T> firstOption, final Alternative<? extends T>... otherOptions) {
+        List<Alternative<? extends T>> alternatives = new ArrayList<>();
+        alternatives.add(firstOption);
+        // copied one by one: handing the generic array to another method is a [varargs] warning
+        for (Alternative<? extends T> option : otherOptions) {
+            alternatives.add(option);
+        }
+        return new FirstCharDispatchingParser<>(alternatives);
+    }
+
+    /**
+     * Declares that the input of `parser` starts with the given literal, for use with {@link #dispatch}.
+     *
+     * @param <T> the type the parser returns
+     * @param literal a non-empty prefix of every input the parser accepts
+     * @param parser the parser
+     * @return the dispatch alternative
+     */
+    public static <T> Alternative<T> startingWith(String literal, Parser<? extends T> parser) {
+        return startingWithAnyOf(literal.substring(0, 1), parser);
+    }
+
+    /**
+     * Declares that the input of `parser` starts with an allowed character, for use with {@link #dispatch}.
+     *
+     * @param <T> the type the parser returns
+     * @param firstCharacters the possible first characters of the input the parser accepts
+     * @param parser the parser
+     * @return the dispatch alternative
+     */
+    public static <T> Alternative<T> startingWith(
+            RawStringParser.AllowableCharacters firstCharacters, Parser<? extends T> parser) {
+        return new Alternative<>(firstCharacters, parser);
+    }
+
+    /**
+     * Declares that the input of `parser` starts with one of the given characters, for use with {@link #dispatch}.
+     *
+     * @param <T> the type the parser returns
+     * @param characters the possible first characters of the input the parser accepts
+     * @param parser the parser
+     * @return the dispatch alternative
+     */
+    public static <T> Alternative<T> startingWithAnyOf(String characters, Parser<? extends T> parser) {
+        return startingWith(new RawStringParser.AllowableCharacters() {
+            @Override
+            public boolean isAllowed(char character) {
+                return characters.indexOf(character) >= 0;
+            }
+
+            @Override
+            public String getDescription() {
+                return "one of '" + characters + "'";
+            }
+        }, parser);
+    }
+
     /**
      * Parse either firstOption or iterate through otherOptions and return result.
      *
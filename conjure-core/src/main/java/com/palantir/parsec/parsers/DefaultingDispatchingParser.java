@@ -26,12 +26,18 @@ import java.util.Map.Entry;
 
 public final class DefaultingDispatchingParser<T> implements Parser<T> {
 
+    private static final Parser<String> DIRECTIVE_PARSER = new RawStringParser();
+
     private final Map<String, Parser<T>> map;
     private final Parser<String> inputStringParser;
+    private final Parser<String> gingerlyInputStringParser;
+    private final Parser<?> whitespaceParser;
+    // only used when directives are parsed by the default RawStringParser
+    private final DirectiveTrie<T> directiveTrie;
     private Parser<T> defaultParser;
 
     public DefaultingDispatchingParser(Map<String, Parser<T>> parsers, Parser<?> whitespaceParser) {
-        this(parsers, new RawStringParser(), whitespaceParser);
+        this(parsers, DIRECTIVE_PARSER, whitespaceParser);
     }
 
     public DefaultingDispatchingParser(Map<String, Parser<T>> parsers, Parser<String> directiveParser,
@@ -47,6 +53,9 @@ public final class DefaultingDispatchingParser<T> implements Parser<T> {
                 this.map.put(entry.getKey(), Parsers.prefix(whitespaceParser, entry.getValue()));
             }
         }
+        this.gingerlyInputStringParser = Parsers.gingerly(inputStringParser);
+        this.whitespaceParser = whitespaceParser;
+        this.directiveTrie = directiveParser == DIRECTIVE_PARSER ? new DirectiveTrie<>(map) : null;
     }
 
     /**
@@ -61,6 +70,10 @@ public final class DefaultingDispatchingParser<T> implements Parser<T> {
 
     @Override
     public T parse(ParserState input) throws ParseException {
+        if (directiveTrie != null) {
+            return parseWithTrie(input);
+        }
+
         T lastResult = null;
         while (input.curr() != -1) {
 
@@ -68,7 +81,7 @@ public final class DefaultingDispatchingParser<T> implements Parser<T> {
             // Mark is now before directive.
 
             // Gingerly will put its own mark at the exact same location.
-            String directive = Parsers.gingerly(inputStringParser).parse(input);
+            String directive = gingerlyInputStringParser.parse(input);
 
             if (Parsers.nullOrEmpty(directive)) {
                 // If we get here, we couldn't parse a directive.
@@ -115,4 +128,41 @@ public final class DefaultingDispatchingParser<T> implements Parser<T> {
         return lastResult;
     }
 
+    private T parseWithTrie(ParserState input) throws ParseException {
+        T lastResult = null;
+        while (input.curr() != -1) {
+            // Mark is now before the whitespace and directive.
+            input.mark();
+            if (whitespaceParser != null) {
+                whitespaceParser.parse(input);
+            }
+
+            // Mark is now before the directive, only needed to report unknown directives.
+            input.mark();
+            DirectiveTrie.Node<T> directive = directiveTrie.match(input);
+            if (directive == null) {
+                // We couldn't parse a directive, rewind to before the whitespace.
+                input.release();
+                input.rewind();
+                break;
+            } else if (directive.parser() != null) {
+                input.release();
+                input.release();
+                lastResult = directive.parser().parse(input);
+            } else if (defaultParser != null) {
+                // The default parser has to handle the entire line, so rewind to before the whitespace.
+                input.release();
+                input.rewind();
+                lastResult = defaultParser.parse(input);
+            } else {
+                input.rewind();
+                String unknownDirective = DIRECTIVE_PARSER.parse(input);
+                input.release();
+                throw new ParseException("Unknown directive '" + unknownDirective
+                        + "' and no default parser specified.", input);
+            }
+        }
+        return lastResult;
+    }
+
 }
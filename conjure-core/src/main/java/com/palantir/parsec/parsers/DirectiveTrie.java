@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec.parsers;
+
+import com.palantir.parsec.Parser;
+import com.palantir.parsec.ParserState;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Matches directives, i.e. the runs of non-whitespace characters parsed by the default {@link RawStringParser}, by
+ * walking a character trie directly over the {@link ParserState}, without materializing the directive as a string.
+ */
+final class DirectiveTrie<T> {
+
+    private static final int ASCII_SIZE = 128;
+
+    private final Node<T> root = new Node<>();
+    // shared by all directives which are not in the trie
+    private final Node<T> unknown = new Node<>();
+
+    DirectiveTrie(Map<String, Parser<T>> parsers) {
+        parsers.forEach(this::insert);
+    }
+
+    /**
+     * Consumes the directive at the current position and returns the node it ends in: null if there is no directive,
+     * i.e. the input is at its end or at whitespace, and a node without {@link Node#parser()} for unknown directives.
+     */
+    Node<T> match(ParserState input) {
+        int curr = input.curr();
+        if (curr == -1 || Character.isWhitespace((char) curr)) {
+            return null;
+        }
+
+        Node<T> node = root;
+        while (curr != -1 && !Character.isWhitespace((char) curr)) {
+            if (node != unknown) {
+                node = node.child((char) curr);
+                if (node == null) {
+                    node = unknown;
+                }
+            }
+            curr = input.next();
+        }
+        return node;
+    }
+
+    private void insert(String directive, Parser<T> parser) {
+        Node<T> node = root;
+        for (int i = 0; i < directive.length(); i++) {
+            node = node.getOrCreateChild(directive.charAt(i));
+        }
+        node.parser = parser;
+    }
+
+    static final class Node<T> {
+        private Node<T>[] asciiChildren;
+        private Map<Character, Node<T>> otherChildren;
+        private Parser<T> parser;
+
+        /** Returns the parser of the directive ending at this node, or null if no directive ends here. */
+        Parser<T> parser() {
+            return parser;
+        }
+
+        private Node<T> child(char character) {
+            if (character < ASCII_SIZE) {
+                return asciiChildren == null ? null : asciiChildren[character];
+            }
+            return otherChildren == null ? null : otherChildren.get(character);
+        }
+
+        @SuppressWarnings("unchecked")
+        private Node<T> getOrCreateChild(char character) {
+            Node<T> child = child(character);
+            if (child == null) {
+                child = new Node<>();
+                if (character < ASCII_SIZE) {
+                    if (asciiChildren == null) {
+                        asciiChildren = (Node<T>[]) new Node<?>[ASCII_SIZE];
+                    }
+                    asciiChildren[character] = child;
+                } else {
+                    if (otherChildren == null) {
+                        otherChildren = new HashMap<>();
+                    }
+                    otherChildren.put(character, child);
+                }
+            }
+            return child;
+        }
+    }
+}
@@ -26,15 +26,21 @@ import java.util.Map.Entry;
 
 public final class DispatchingParser<T> implements Parser<T> {
 
+    private static final Parser<String> DIRECTIVE_PARSER = new RawStringParser();
+
     private final Map<String, Parser<T>> parserLookup;
     private final Parser<String> inputStringParser;
+    private final Parser<String> gingerlyInputStringParser;
+    private final Parser<?> whitespaceParser;
+    // only used when directives are parsed by the default RawStringParser
+    private final DirectiveTrie<T> directiveTrie;
 
     public DispatchingParser(Map<String, Parser<T>> parsers) {
         this(parsers, null);
     }
 
     public DispatchingParser(Map<String, Parser<T>> parsers, Parser<?> whitespaceParser) {
-        this(parsers, new RawStringParser(), whitespaceParser);
+        this(parsers, DIRECTIVE_PARSER, whitespaceParser);
     }
 
     public DispatchingParser(Map<String, Parser<T>> parsers, Parser<String> directiveParser,
@@ -49,13 +55,20 @@ public final class DispatchingParser<T> implements Parser<T> {
                 parserLookup.put(entry.getKey(), Parsers.prefix(whitespaceParser, entry.getValue()));
             }
         }
+        this.gingerlyInputStringParser = Parsers.gingerly(inputStringParser);
+        this.whitespaceParser = whitespaceParser;
+        this.directiveTrie = directiveParser == DIRECTIVE_PARSER ? new DirectiveTrie<>(parserLookup) : null;
     }
 
     @Override
     public T parse(ParserState input) throws ParseException {
+        if (directiveTrie != null) {
+            return parseWithTrie(input);
+        }
+
         T lastResult = null;
         while (input.curr() != -1) {
-            String directive = Parsers.gingerly(inputStringParser).parse(input);
+            String directive = gingerlyInputStringParser.parse(input);
             if (Parsers.nullOrEmpty(directive)) {
                 break;
             } else if (parserLookup.containsKey(directive)) {
@@ -67,4 +80,34 @@ public final class DispatchingParser<T> implements Parser<T> {
         return lastResult;
     }
 
+    private T parseWithTrie(ParserState input) throws ParseException {
+        T lastResult = null;
+        while (input.curr() != -1) {
+            // Mark is now before the whitespace and directive.
+            input.mark();
+            if (whitespaceParser != null) {
+                whitespaceParser.parse(input);
+            }
+
+            // Mark is now before the directive, only needed to report unknown directives.
+            input.mark();
+            DirectiveTrie.Node<T> directive = directiveTrie.match(input);
+            if (directive == null) {
+                input.release();
+                input.rewind();
+                break;
+            } else if (directive.parser() != null) {
+                input.release();
+                input.release();
+                lastResult = directive.parser().parse(input);
+            } else {
+                input.rewind();
+                String unknownDirective = DIRECTIVE_PARSER.parse(input);
+                input.release();
+                throw new ParseException("Unknown directive '" + unknownDirective + "'.", input);
+            }
+        }
+        return lastResult;
+    }
+
 }
@@ -29,14 +29,18 @@ public final class ExpectantParser implements Parser<ExpectationResult> {
 
     @Override
     public ExpectationResult parse(ParserState input) {
-        StringBuilder sb = new StringBuilder();
+        // consume as many characters as the expectation is long (or up to the end of the input), even past the
+        // first mismatch, without building the consumed string
+        boolean matches = true;
+        int consumed = 0;
         int curr = input.curr();
-        while (curr != -1 && sb.length() < expectation.length()) {
-            sb.append((char) curr);
+        while (curr != -1 && consumed < expectation.length()) {
+            matches &= curr == expectation.charAt(consumed);
+            consumed++;
             curr = input.next();
         }
 
-        if (sb.toString().equals(expectation)) {
+        if (matches && consumed == expectation.length()) {
             return ExpectationResult.CORRECT;
         } else {
             return ExpectationResult.INCORRECT;
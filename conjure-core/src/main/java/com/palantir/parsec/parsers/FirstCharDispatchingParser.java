@@ -0,0 +1,116 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec.parsers;
+
+import com.palantir.parsec.ParseException;
+import com.palantir.parsec.Parser;
+import com.palantir.parsec.ParserState;
+import com.palantir.parsec.Parsers;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Chooses between alternatives based on the current character, like an LL(1) parser. Each alternative declares the
+ * characters it can start with; only the alternatives whose first characters contain the current character are
+ * tried, in declaration order, each rewinding the input on failure as {@link Parsers#or} does. When first characters
+ * do not overlap this jumps straight to the single viable alternative.
+ *
+ * <p>The result is the same as {@link Parsers#or} over the same parsers as long as every alternative returns null
+ * (or {@link ExpectationResult#INCORRECT}) whenever the input does not start with one of its declared characters;
+ * in particular, alternatives which can succeed without consuming any input cannot be dispatched on.
+ */
+public final class FirstCharDispatchingParser<T> implements Parser<T> {
+
+    private static final int TABLE_SIZE = 128;
+    private static final int[] NO_ALTERNATIVES = new int[0];
+
+    private final List<Alternative<? extends T>> alternatives;
+    // indices of the viable alternatives for each ASCII character, non-ASCII characters are looked up linearly
+    private final int[][] asciiTable;
+
+    public FirstCharDispatchingParser(List<Alternative<? extends T>> alternatives) {
+        this.alternatives = new ArrayList<>(alternatives);
+        this.asciiTable = new int[TABLE_SIZE][];
+        for (char character = 0; character < TABLE_SIZE; character++) {
+            List<Integer> viable = new ArrayList<>();
+            for (int i = 0; i < this.alternatives.size(); i++) {
+                if (this.alternatives.get(i).firstCharacters.isAllowed(character)) {
+                    viable.add(i);
+                }
+            }
+            asciiTable[character] = viable.isEmpty()
+                    ? NO_ALTERNATIVES
+                    : viable.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    @Override
+    public T parse(ParserState input) throws ParseException {
+        int curr = input.curr();
+        if (curr == -1) {
+            return null;
+        }
+
+        T result = null;
+        if (curr < TABLE_SIZE) {
+            for (int index : asciiTable[curr]) {
+                result = alternatives.get(index).parse(input);
+                if (result != null) {
+                    return result;
+                }
+            }
+        } else {
+            for (Alternative<? extends T> alternative : alternatives) {
+                if (alternative.firstCharacters.isAllowed((char) curr)) {
+                    result = alternative.parse(input);
+                    if (result != null) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /** A parser together with the characters its input can start with. */
+    public static final class Alternative<T> {
+        private final RawStringParser.AllowableCharacters firstCharacters;
+        private final Parser<? extends T> parser;
+
+        public Alternative(RawStringParser.AllowableCharacters firstCharacters, Parser<? extends T> parser) {
+            this.firstCharacters = firstCharacters;
+            this.parser = parser;
+        }
+
+        /** Runs the parser, rewinding the input if it returns null or {@link ExpectationResult#INCORRECT}. */
+        T parse(ParserState input) throws ParseException {
+            input.mark();
+            T result = parser.parse(input);
+            if (!Parsers.nullOrUnexpected(result)) {
+                input.release();
+            } else {
+                input.rewind();
+            }
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return parser + " starting with " + firstCharacters.getDescription();
+        }
+    }
+}
@@ -17,16 +17,30 @@
 package com.palantir.conjure.defs;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.defs.validator.ValidationUnits;
 import com.palantir.conjure.parser.ConjureParser;
+import com.palantir.conjure.parser.ConjureSourceFile;
+import com.palantir.conjure.parser.types.names.Namespace;
 import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.TypeName;
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import org.junit.Ignore;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class ConjureDefTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void resolvesImportedAliases() {
         ConjureDefinition conjureDefinition = ConjureParserUtils.parseConjureDef(
@@ -34,6 +48,67 @@ public class ConjureDefTest {
         assertThat(conjureDefinition.getTypes()).hasSize(1);
     }
 
+    @Test
+    public void parallelValidationProducesSameDefinition() {
+        ImmutableList<ConjureSourceFile> sourceFiles = ImmutableList.of(
+                ConjureParser.parse(new File("src/test/resources/example-conjure-imports.yml")));
+        assertThat(ConjureParserUtils.parseConjureDef(sourceFiles, ValidationMode.PARALLEL))
+                .isEqualTo(ConjureParserUtils.parseConjureDef(sourceFiles, ValidationMode.SEQUENTIAL));
+    }
+
+    @Test
+    public void rejectsDuplicateNamesAcrossSourceFiles() {
+        ConjureSourceFile sourceFile = ConjureParser.parse(new File("src/test/resources/example-conjure-imports.yml"));
+        assertThatThrownBy(() -> ConjureParserUtils.parseConjureDef(ImmutableList.of(sourceFile, sourceFile)))
+                .hasMessageContaining("Type, error, and service names must be unique")
+                .hasMessageContaining("ComplexObjectWithImports");
+    }
+
+    @Test
+    public void ignoresUnusedExternalImportsWithoutPackage() {
+        ConjureDefinition conjureDefinition = ConjureParserUtils.parseConjureDef(ImmutableList.of(
+                ConjureParser.parse(new File("src/test/resources/example-unused-external-import.yml"))));
+        assertThat(conjureDefinition.getTypes()).hasSize(1);
+    }
+
+    @Test
+    public void convertsSharedImportsOnce() throws IOException {
+        write("shared.yml", "types:\n"
+                + "  definitions:\n"
+                + "    default-package: com.palantir.shared\n"
+                + "    objects:\n"
+                + "      Shared:\n"
+                + "        fields:\n"
+                + "          value: string\n");
+        for (String side : new String[] {"left", "right"}) {
+            write(side + ".yml", "types:\n"
+                    + "  conjure-imports:\n"
+                    + "    shared: shared.yml\n"
+                    + "  definitions:\n"
+                    + "    default-package: com.palantir." + side + "\n"
+                    + "    objects:\n"
+                    + "      Object:\n"
+                    + "        fields:\n"
+                    + "          shared: shared.Shared\n");
+        }
+        ConjureSourceFile top = ConjureParser.parse(write("top.yml", "types:\n"
+                + "  conjure-imports:\n"
+                + "    left: left.yml\n"
+                + "    right: right.yml\n"));
+        ConjureSourceFile left = top.types().conjureImports().get(Namespace.of("left")).conjure();
+        ConjureSourceFile right = top.types().conjureImports().get(Namespace.of("right")).conjure();
+
+        ConjureParserUtils.ImportedObjectsCache cache = new ConjureParserUtils.ImportedObjectsCache(
+                SymbolTable.build(ImmutableList.of(top)), ValidationUnits.sequential());
+        TypeName shared = TypeName.of("Shared", "com.palantir.shared");
+        // converting the same file twice would produce equal but distinct definitions
+        assertThat(cache.importedObjects(left.types().conjureImports()).get(shared))
+                .isNotNull()
+                .isSameAs(cache.importedObjects(right.types().conjureImports()).get(shared));
+        assertThat(cache.importedObjects(top.types().conjureImports()))
+                .containsKeys(shared, TypeName.of("Object", "com.palantir.left"));
+    }
+
     // Test currently fails as it attempts to parse a TypeScript package name as a java package
     @Test
     @Ignore
@@ -41,4 +116,10 @@ public class ConjureDefTest {
         ConjureParserUtils.parseConjureDef(
                 ImmutableList.of(ConjureParser.parse(new File("src/test/resources/example-external-types.yml"))));
     }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
 }
@@ -0,0 +1,162 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IncrementalCompilerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path stateFile;
+    private File leaf;
+    private File importer;
+    private File independent;
+    private List<File> files;
+
+    @Before
+    public void before() throws IOException {
+        stateFile = folder.getRoot().toPath().resolve("state/conjure.state.json");
+        leaf = write("leaf.yml", leaf("Leaf", "string"));
+        importer = write("importer.yml", ""
+                + "types:\n"
+                + "  conjure-imports:\n"
+                + "    leaf: leaf.yml\n"
+                + "  definitions:\n"
+                + "    default-package: com.palantir.importer\n"
+                + "    objects:\n"
+                + "      Importer:\n"
+                + "        fields:\n"
+                + "          leaf: leaf.Leaf\n"
+                + "services:\n"
+                + "  ImporterService:\n"
+                + "    name: Importer Service\n"
+                + "    package: com.palantir.importer\n"
+                + "    base-path: /importer\n"
+                + "    endpoints:\n"
+                + "      getLeaf:\n"
+                + "        http: GET /{leafId}\n"
+                + "        args:\n"
+                + "          leafId: string\n"
+                + "        returns: leaf.Leaf\n");
+        independent = write("independent.yml", leaf("Independent", "integer"));
+        files = ImmutableList.of(leaf, importer, independent);
+    }
+
+    @Test
+    public void testEqualsFullCompileAcrossEdits() throws IOException {
+        assertThat(compile()).isEqualTo(Conjure.parse(files));
+        assertThat(stateFile).exists();
+        assertThat(compile()).isEqualTo(Conjure.parse(files));
+
+        write("leaf.yml", leaf("Leaf", "integer"));
+        assertThat(compile()).isEqualTo(Conjure.parse(files));
+
+        write("independent.yml", leaf("Independent", "double"));
+        assertThat(compile()).isEqualTo(Conjure.parse(files));
+    }
+
+    @Test
+    public void testInMemoryCompilerReusesItsState() throws IOException {
+        IncrementalCompiler compiler = IncrementalCompiler.inMemory();
+        assertThat(compiler.compile(files, ValidationMode.SEQUENTIAL, ParseCache.disabled()))
+                .isEqualTo(Conjure.parse(files));
+
+        write("leaf.yml", leaf("Leaf", "integer"));
+        assertThat(compiler.compile(files, ValidationMode.SEQUENTIAL, ParseCache.disabled()))
+                .isEqualTo(Conjure.parse(files));
+        assertThat(stateFile).doesNotExist();
+    }
+
+    @Test
+    public void testRemovedAndAddedFiles() throws IOException {
+        compile();
+        File added = write("added.yml", leaf("Added", "string"));
+
+        List<File> changedFiles = ImmutableList.of(leaf, importer, added);
+        assertThat(IncrementalCompiler.create(stateFile, "1.0.0")
+                .compile(changedFiles, ValidationMode.SEQUENTIAL, ParseCache.disabled()))
+                .isEqualTo(Conjure.parse(changedFiles));
+    }
+
+    @Test
+    public void testChecksNamesAcrossCleanAndChangedFiles() throws IOException {
+        compile();
+        write("independent.yml", leaf("Leaf", "integer"));
+
+        assertThatThrownBy(this::compile)
+                .hasMessageContaining("Type, error, and service names must be unique")
+                .hasMessageContaining("Leaf");
+    }
+
+    @Test
+    public void testIgnoresStateOfOtherCompilerVersions() throws IOException {
+        compile();
+        write("leaf.yml", leaf("Leaf", "integer"));
+
+        assertThat(IncrementalCompiler.create(stateFile, "2.0.0")
+                .compile(files, ValidationMode.SEQUENTIAL, ParseCache.disabled()))
+                .isEqualTo(Conjure.parse(files));
+    }
+
+    @Test
+    public void testIgnoresUnreadableState() throws IOException {
+        compile();
+        Files.write(stateFile, "{".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(compile()).isEqualTo(Conjure.parse(files));
+    }
+
+    private ConjureDefinition compile() {
+        return IncrementalCompiler.create(stateFile, "1.0.0")
+                .compile(files, ValidationMode.SEQUENTIAL, ParseCache.disabled());
+    }
+
+    private File write(String name, String content) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String leaf(String name, String fieldType) {
+        return ""
+                + "types:\n"
+                + "  definitions:\n"
+                + "    default-package: com.palantir.leaf\n"
+                + "    objects:\n"
+                + "      " + name + ":\n"
+                + "        fields:\n"
+                + "          value: " + fieldType + "\n";
+    }
+}
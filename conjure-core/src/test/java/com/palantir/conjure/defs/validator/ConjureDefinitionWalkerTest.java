@@ -0,0 +1,117 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
+import org.junit.Test;
+
+public class ConjureDefinitionWalkerTest {
+    private static final Type STRING = Type.primitive(PrimitiveType.STRING);
+    private static final Type NESTED_OPTIONAL = Type.optional(OptionalType.of(Type.optional(OptionalType.of(STRING))));
+
+    @Test
+    public void testEarlierRuleFailureTakesPrecedence() {
+        // the illegal map key is reached first, but NO_NESTED_OPTIONAL comes before ILLEGAL_MAP_KEYS
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(TypeDefinition.object(ObjectDefinition.builder()
+                        .typeName(TypeName.of("Foo", "package"))
+                        .fields(FieldDefinition.of(FieldName.of("bad"),
+                                Type.map(MapType.of(Type.map(MapType.of(STRING, STRING)), STRING)),
+                                Documentation.of("docs")))
+                        .build()))
+                .services(ServiceDefinition.builder()
+                        .serviceName(TypeName.of("Service", "package"))
+                        .endpoints(EndpointDefinition.builder()
+                                .endpointName(EndpointName.of("badEndpoint"))
+                                .returns(NESTED_OPTIONAL)
+                                .httpMethod(HttpMethod.GET)
+                                .httpPath(HttpPath.of("/a/path"))
+                                .build())
+                        .build())
+                .build();
+
+        assertThatThrownBy(() -> ConjureDefinitionValidator.validateAll(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal nested optionals found in return type of endpoint badEndpoint");
+        assertThatThrownBy(() -> ConjureDefinitionValidator.ILLEGAL_MAP_KEYS.validate(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal map key found in object Foo");
+    }
+
+    @Test
+    public void testRuleStopsReceivingCallbacksAfterFailure() {
+        // a later failure of the same rule would replace the first one
+        ConjureDefinitionRule failingRule = (_definition, _types) -> new ConjureDefinitionRule.Callbacks() {
+            @Override
+            public void type(TypeDefinition type) {
+                throw new IllegalStateException("Failed at " + type.accept(TypeDefinitionVisitor.TYPE_NAME).getName());
+            }
+        };
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(ImmutableList.of(object("Foo"), object("Bar")))
+                .build();
+
+        assertThatThrownBy(() -> ConjureDefinitionWalker.validate(conjureDef, ImmutableList.of(failingRule)))
+                .hasMessage("Failed at Foo");
+    }
+
+    @Test
+    public void testAliasCyclesAreReportedByTheRecursiveTypesRule() {
+        // later rules see the types before NO_RECURSIVE_TYPES finds the cycle, so they must not follow it forever
+        TypeName first = TypeName.of("First", "package");
+        TypeName second = TypeName.of("Second", "package");
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(ImmutableList.of(alias(first, Type.reference(second)), alias(second, Type.reference(first))))
+                .build();
+
+        assertThatThrownBy(() -> ConjureDefinitionValidator.validateAll(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive data type: First -> Second -> First");
+        ConjureDefinitionValidator.NO_NESTED_OPTIONAL.validate(conjureDef);
+    }
+
+    private static TypeDefinition alias(TypeName name, Type target) {
+        return TypeDefinition.alias(AliasDefinition.builder().typeName(name).alias(target).build());
+    }
+
+    private static TypeDefinition object(String name) {
+        return TypeDefinition.object(ObjectDefinition.builder().typeName(TypeName.of(name, "package")).build());
+    }
+}
@@ -110,6 +110,39 @@ public class ConjureSourceFileValidatorTest {
                 .hasMessageStartingWith("Illegal recursive data type: ");
     }
 
+    @Test
+    public void testAllRecursiveCyclesAreReported() {
+        TypeName baz = TypeName.of("Baz", PACKAGE);
+        ConjureDefinition conjureDef = ConjureDefinition.builder()
+                .version(1)
+                .types(ImmutableList.of(
+                        TypeDefinition.object(
+                                ObjectDefinition.builder()
+                                        .typeName(FOO)
+                                        .addAllFields(ImmutableList.of(
+                                                field(FieldName.of("baz"), "Baz"),
+                                                field(FieldName.of("bar"), "Bar")))
+                                        .build()),
+                        TypeDefinition.alias(
+                                AliasDefinition.builder()
+                                        .typeName(BAR)
+                                        .alias(Type.reference(FOO))
+                                        .build()),
+                        TypeDefinition.object(
+                                ObjectDefinition.builder()
+                                        .typeName(baz)
+                                        .addAllFields(ImmutableList.of(
+                                                FieldDefinition.of(FieldName.of("optionalFoo"),
+                                                        Type.optional(OptionalType.of(Type.reference(FOO))), DOCS),
+                                                field(FieldName.of("self"), "Baz")))
+                                        .build())))
+                .build();
+
+        assertThatThrownBy(() -> ConjureDefinitionValidator.NO_RECURSIVE_TYPES.validate(conjureDef))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal recursive data type: Foo -> Bar -> Foo; Baz -> Baz");
+    }
+
     @Test
     public void testNoIllegalMapKeys_returns() {
         ConjureDefinition conjureDef = ConjureDefinition.builder()
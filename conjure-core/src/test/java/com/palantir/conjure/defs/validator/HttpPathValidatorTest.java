@@ -16,8 +16,10 @@
 
 package com.palantir.conjure.defs.validator;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.palantir.conjure.spec.ArgumentName;
 import com.palantir.conjure.spec.HttpPath;
 import java.util.regex.Pattern;
 import org.junit.Test;
@@ -47,6 +49,9 @@ public final class HttpPathValidatorTest {
                 new PathSegmentTestCase("/123", "123"),
                 new PathSegmentTestCase("/abc/$%^", "$%^"),
                 new PathSegmentTestCase("/abc/{123}", "{123}"),
+                new PathSegmentTestCase("/abc/{fooBAR}", "{fooBAR}"),
+                new PathSegmentTestCase("/abc/{foo:[a-z]+}", "{foo:[a-z]+}"),
+                new PathSegmentTestCase("/abc/x{foo}", "x{foo}"),
                 }) {
             assertThatThrownBy(() -> validate(currCase.path))
                     .isInstanceOf(IllegalArgumentException.class)
@@ -78,6 +83,30 @@ public final class HttpPathValidatorTest {
         validate("/abc/v1.2/{foo}");
     }
 
+    @Test
+    public void testPathParametersMustBeUnique() {
+        assertThatThrownBy(() -> validate("/abc/{foo}/{foo:.+}"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Path parameter foo appears more than once in path /abc/{foo}/{foo:.+}");
+    }
+
+    @Test
+    public void testOptionalRegexOnlyInLastSegment() {
+        validate("/abc/{foo}/{bar:.*}");
+        validate("/abc/{foo:.+}/bar");
+        assertThatThrownBy(() -> validate("/abc/{foo:.*}/bar"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Path parameter {foo} in path /abc/{foo:.*}/bar specifies regular expression .*, but this "
+                        + "regular expression is only permitted if the path parameter is the last segment");
+    }
+
+    @Test
+    public void testPathArgs() {
+        assertThat(HttpPathValidator.pathArgs("/abc/{foo}/bar/{fooBar1:.+}"))
+                .containsExactly(ArgumentName.of("foo"), ArgumentName.of("fooBar1"));
+        assertThat(HttpPathValidator.pathArgs("/abc/bar")).isEmpty();
+    }
+
     private static void validate(String path) {
         HttpPathValidator.validate(HttpPath.of(path));
     }
@@ -0,0 +1,70 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+public final class NameRecognizersTest {
+
+    @Test
+    public void testTypeName() {
+        assertAgreesWithPattern("^[A-Z][a-z0-9]+([A-Z][a-z0-9]+)*$", NameRecognizers::isTypeName, "aAzZ09_");
+    }
+
+    @Test
+    public void testHeaderName() {
+        assertAgreesWithPattern(
+                "^[A-Z][a-zA-Z0-9]*(-[A-Z][a-zA-Z0-9]*)*$", NameRecognizers::isHeaderName, "aAzZ09-_");
+    }
+
+    @Test
+    public void testKebabCaseKey() {
+        assertAgreesWithPattern("^[a-z]+(-[a-z]+)*$", NameRecognizers::isKebabCaseKey, "azA0-_");
+    }
+
+    @Test
+    public void testPathSegment() {
+        assertAgreesWithPattern("^[a-zA-Z][a-zA-Z0-9._-]*$", NameRecognizers::isPathSegment, "aAzZ09._-{:/");
+    }
+
+    @Test
+    public void testPathParameterName() {
+        assertAgreesWithPattern(
+                "^" + HttpPathValidator.PATTERN + "$", NameRecognizers::isPathParameterName, "aAzZ09-");
+    }
+
+    /** Checks the recognizer against the pattern on random short strings over the given alphabet. */
+    private static void assertAgreesWithPattern(String regex, Predicate<String> recognizer, String alphabet) {
+        Pattern pattern = Pattern.compile(regex);
+        Random random = new Random(0);
+        for (int i = 0; i < 100_000; i++) {
+            char[] chars = new char[random.nextInt(10)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            String name = new String(chars);
+            assertThat(recognizer.test(name))
+                    .describedAs("%s matches %s", regex, name)
+                    .isEqualTo(pattern.matcher(name).matches());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.defs.validator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class ValidationUnitsTest {
+
+    @Test
+    public void testSequentialUnitsRunImmediately() {
+        ValidationUnits validation = ValidationUnits.sequential();
+        assertThatThrownBy(() -> validation.add(fail("first")))
+                .hasMessage("first");
+    }
+
+    @Test
+    public void testParallelReportsFailuresInSourceOrder() {
+        ValidationUnits validation = ValidationUnits.create(ValidationMode.PARALLEL);
+        AtomicInteger runs = new AtomicInteger();
+        for (int i = 0; i < 100; i++) {
+            int index = i;
+            validation.add(() -> {
+                runs.incrementAndGet();
+                if (index % 10 == 5) {
+                    throw new IllegalStateException("unit " + index);
+                }
+            });
+        }
+
+        assertThatThrownBy(validation::validate)
+                .hasMessage("unit 5")
+                .satisfies(failure -> assertThat(Arrays.stream(failure.getSuppressed()).map(Throwable::getMessage))
+                        .containsExactly("unit 15", "unit 25", "unit 35", "unit 45", "unit 55", "unit 65",
+                                "unit 75", "unit 85", "unit 95"));
+        assertThat(runs).hasValue(100);
+    }
+
+    @Test
+    public void testParallelFailFastReportsFirstFailure() {
+        ValidationUnits validation = ValidationUnits.create(ValidationMode.PARALLEL_FAIL_FAST);
+        validation.add(() -> {});
+        validation.add(fail("second"));
+        validation.add(fail("third"));
+        for (int i = 0; i < 1000; i++) {
+            validation.add(() -> {});
+        }
+
+        assertThatThrownBy(validation::validate)
+                .hasMessage("second")
+                .satisfies(failure -> assertThat(failure.getSuppressed()).isEmpty());
+    }
+
+    @Test
+    public void testValidatesOnlyOnce() {
+        ValidationUnits validation = ValidationUnits.create(ValidationMode.PARALLEL);
+        validation.validate();
+        assertThatThrownBy(() -> validation.add(() -> {}))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Units have already been validated");
+    }
+
+    private static Runnable fail(String message) {
+        return () -> {
+            throw new IllegalStateException(message);
+        };
+    }
+}
@@ -20,7 +20,9 @@ package com.palantir.conjure.parser;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.palantir.conjure.parser.types.names.Namespace;
 import com.palantir.conjure.parser.types.names.TypeName;
 import com.palantir.conjure.parser.types.primitive.PrimitiveType;
@@ -28,7 +30,13 @@ import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.List;
+import java.util.Map;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -83,6 +91,64 @@ public class ConjureParserTest {
         assertThat(result.types().conjureImports()).isNotEmpty();
     }
 
+    @Test
+    public void testConjureSharedImportsAreParsedOnce() throws IOException {
+        generateFiles(ImmutableList.of("common"), ImmutableList.of());
+        generateFiles(ImmutableList.of("left", "right"), ImmutableList.of("common"));
+
+        List<ConjureSourceFile> results = ConjureParser.parse(ImmutableList.of(
+                temporaryFolder.getRoot().toPath().resolve("left.yml").toFile(),
+                temporaryFolder.getRoot().toPath().resolve("right.yml").toFile(),
+                temporaryFolder.getRoot().toPath().resolve("common.yml").toFile()));
+
+        assertThat(results).hasSize(3);
+        ConjureSourceFile leftCommon = results.get(0).types().conjureImports().get(Namespace.of("common")).conjure();
+        ConjureSourceFile rightCommon = results.get(1).types().conjureImports().get(Namespace.of("common")).conjure();
+        assertThat(leftCommon).isSameAs(rightCommon).isSameAs(results.get(2));
+    }
+
+    @Test
+    public void diamondImportsAreReadOnceWhenParsedConcurrently() throws IOException {
+        // top imports left and right, which both import shared; every file is also parsed as a root
+        generateFiles(ImmutableList.of("shared"), ImmutableList.of());
+        generateFiles(ImmutableList.of("left", "right"), ImmutableList.of("shared"));
+        generateFiles(ImmutableList.of("top"), ImmutableList.of("left", "right"));
+        List<File> files = Stream.of("top", "left", "right", "shared")
+                .map(name -> temporaryFolder.getRoot().toPath().resolve(name + ".yml").toFile())
+                .collect(Collectors.toList());
+
+        ObjectMapper mapper = ConjureParser.createConjureParserObjectMapper();
+        for (int i = 0; i < 20; i++) {
+            Map<String, AtomicInteger> reads = new ConcurrentHashMap<>();
+            List<ConjureSourceFile> results = ConjureParser.parse(files, file -> {
+                reads.computeIfAbsent(file.getName(), name -> new AtomicInteger()).incrementAndGet();
+                // widen the window in which sibling tasks could race to read the same file
+                Uninterruptibles.sleepUninterruptibly(5, TimeUnit.MILLISECONDS);
+                return mapper.readValue(file, ConjureSourceFile.class);
+            });
+
+            assertThat(reads).containsOnlyKeys("top.yml", "left.yml", "right.yml", "shared.yml");
+            assertThat(reads.values()).allSatisfy(count -> assertThat(count).hasValue(1));
+            ConjureSourceFile left = results.get(0).types().conjureImports().get(Namespace.of("left")).conjure();
+            ConjureSourceFile right = results.get(0).types().conjureImports().get(Namespace.of("right")).conjure();
+            assertThat(left.types().conjureImports().get(Namespace.of("shared")).conjure())
+                    .isSameAs(right.types().conjureImports().get(Namespace.of("shared")).conjure())
+                    .isSameAs(results.get(3));
+        }
+    }
+
+    @Test
+    public void missingImportsAreReported() throws IOException {
+        generateFiles(ImmutableList.of("importer"), ImmutableList.of("missing"));
+        File missing = temporaryFolder.getRoot().toPath().resolve("missing.yml").toFile();
+
+        assertThatThrownBy(() -> ConjureParser.parse(ImmutableList.of(
+                new File("src/test/resources/example-conjure-imports.yml"),
+                temporaryFolder.getRoot().toPath().resolve("importer.yml").toFile())))
+                .isInstanceOf(ConjureParser.ImportNotFoundException.class)
+                .hasMessage("Import not found: " + missing.getAbsolutePath());
+    }
+
     private void generateFiles(List<String> names, List<String> importedNamespaces) throws IOException {
         for (String name : names) {
             File file = temporaryFolder.newFile(name + ".yml");
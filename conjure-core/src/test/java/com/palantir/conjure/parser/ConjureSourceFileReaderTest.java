@@ -0,0 +1,107 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.UnrecognizedPropertyException;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.parser.ConjureSourceFileReader.ImportContext;
+import java.io.File;
+import java.io.IOException;
+import org.junit.Test;
+
+public class ConjureSourceFileReaderTest {
+
+    private static final ObjectMapper MAPPER = ConjureParser.createConjureParserObjectMapper();
+
+    @Test
+    public void testReadsSameModelAsDatabind() throws IOException {
+        for (String file : ImmutableList.of(
+                "src/test/resources/example-conjure-imports.yml",
+                "src/test/resources/example-external-types.yml",
+                "src/test/resources/normalize-me.yml",
+                "src/test/resources/test-service.yml",
+                "../conjure-api/src/main/conjure/conjure-api.yml")) {
+            File yaml = new File(file);
+            assertThat(ConjureSourceFileReader.read(yaml, ImportContext.UNRESOLVED))
+                    .as(file)
+                    .isEqualTo(MAPPER.readValue(yaml, ConjureSourceFile.class));
+        }
+    }
+
+    @Test
+    public void testStreamingParserResolvesSameImports() {
+        File file = new File("src/test/resources/example-conjure-imports.yml");
+        assertThat(ConjureParser.parseStreaming(ImmutableList.of(file))).containsExactly(ConjureParser.parse(file));
+    }
+
+    @Test
+    public void testStreamingParserRejectsCyclicImports() {
+        assertThatThrownBy(() -> ConjureParser.parseStreaming(ImmutableList.of(
+                new File("src/test/resources/example-recursive-imports.yml"))))
+                .isInstanceOf(ConjureParser.CyclicImportException.class);
+    }
+
+    @Test
+    public void testStringOrObjectValues() throws IOException {
+        String yaml = String.join("\n",
+                "types:",
+                "  definitions:",
+                "    default-package: com.palantir.foo",
+                "    objects:",
+                "      Foo:",
+                "        fields:",
+                "          bar: string",
+                "          baz:",
+                "            type: optional<integer>",
+                "            docs: Some docs.",
+                "      Color:",
+                "        values:",
+                "          - RED",
+                "          - value: BLUE",
+                "            docs: Blue.");
+        assertThat(ConjureSourceFileReader.read(yaml, ImportContext.UNRESOLVED))
+                .isEqualTo(MAPPER.readValue(yaml, ConjureSourceFile.class));
+    }
+
+    @Test
+    public void testUnknownKeysFailToParse() {
+        assertThatThrownBy(() -> ConjureSourceFileReader.read(
+                "types:\n  definitions:\n    defaultPackage: com.palantir.foo", ImportContext.UNRESOLVED))
+                .isInstanceOf(UnrecognizedPropertyException.class)
+                .hasMessageContaining("Unrecognized field \"defaultPackage\"");
+    }
+
+    @Test
+    public void testKeysOfAnotherKindOfDefinitionFailToParse() {
+        assertThatThrownBy(() -> ConjureSourceFileReader.read(
+                "types:\n  definitions:\n    objects:\n      Foo:\n        alias: string\n        values: [A]",
+                ImportContext.UNRESOLVED))
+                .isInstanceOf(UnrecognizedPropertyException.class)
+                .hasMessageContaining("Unrecognized field \"alias\"");
+    }
+
+    @Test
+    public void testDuplicateKeysFailToParse() {
+        assertThatThrownBy(() -> ConjureSourceFileReader.read(
+                new File("src/test/resources/duplicate-keys.yml"), ImportContext.UNRESOLVED))
+                .hasMessageContaining("Duplicate field 'services'");
+    }
+}
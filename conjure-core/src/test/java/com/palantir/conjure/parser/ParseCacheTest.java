@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ParseCacheTest {
+    private static final File SOURCE = new File("src/test/resources/test-service.yml");
+    private static final ObjectMapper MAPPER = ConjureParser.createConjureParserObjectMapper();
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testHitsAreEqualToParsedFiles() throws IOException {
+        ParseCache cache = ParseCache.inDirectory(temporaryFolder.getRoot().toPath(), "1.0.0");
+        ConjureSourceFile parsed = MAPPER.readValue(SOURCE, ConjureSourceFile.class);
+
+        assertThat(cache.read(SOURCE, MAPPER)).isEqualTo(parsed);
+        assertThat(entries()).hasSize(1);
+        // a hit does not parse YAML
+        assertThat(cache.read(SOURCE, null)).isEqualTo(parsed);
+    }
+
+    @Test
+    public void testEntriesAreKeyedByContentAndCompilerVersion() throws IOException {
+        Path root = temporaryFolder.getRoot().toPath();
+        ParseCache.inDirectory(root, "1.0.0").read(SOURCE, MAPPER);
+        ParseCache.inDirectory(root, "1.0.1").read(SOURCE, MAPPER);
+        File copy = temporaryFolder.newFile("copy.yml");
+        Files.copy(SOURCE.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        ParseCache.inDirectory(root, "1.0.0").read(copy, MAPPER);
+
+        assertThat(entries()).hasSize(2);
+    }
+
+    @Test
+    public void testUnreadableEntriesAreReplaced() throws IOException {
+        ParseCache cache = ParseCache.inDirectory(temporaryFolder.getRoot().toPath(), "1.0.0");
+        ConjureSourceFile parsed = cache.read(SOURCE, MAPPER);
+        Path entry = entries().get(0);
+        Files.write(entry, "not json".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(cache.read(SOURCE, MAPPER)).isEqualTo(parsed);
+        assertThat(cache.read(SOURCE, null)).isEqualTo(parsed);
+    }
+
+    @Test
+    public void testParsesImportsThroughCache() {
+        File source = new File("src/test/resources/example-conjure-imports.yml");
+        ParseCache cache = ParseCache.inDirectory(temporaryFolder.getRoot().toPath(), "1.0.0");
+        List<ConjureSourceFile> uncached = ConjureParser.parse(ImmutableList.of(source));
+
+        assertThat(ConjureParser.parse(ImmutableList.of(source), cache)).isEqualTo(uncached);
+        assertThat(ConjureParser.parse(ImmutableList.of(source), cache)).isEqualTo(uncached);
+    }
+
+    private List<Path> entries() throws IOException {
+        try (Stream<Path> files = Files.walk(temporaryFolder.getRoot().toPath())) {
+            return files.filter(path -> path.toString().endsWith(".json")).collect(Collectors.toList());
+        }
+    }
+}
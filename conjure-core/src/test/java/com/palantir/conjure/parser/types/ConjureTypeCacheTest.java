@@ -0,0 +1,61 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.parser.types;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.cache.CacheStats;
+import com.palantir.conjure.parser.types.collect.MapType;
+import com.palantir.conjure.parser.types.names.TypeName;
+import com.palantir.conjure.parser.types.primitive.PrimitiveType;
+import com.palantir.conjure.parser.types.reference.LocalReferenceType;
+import com.palantir.parsec.ParseException;
+import org.junit.Test;
+
+public final class ConjureTypeCacheTest {
+
+    @Test
+    public void testIdenticalStringsShareInstance() throws ParseException {
+        CacheStats before = ConjureTypeCache.stats();
+        ConjureType first = ConjureType.fromString("map<string, CachedAlias>");
+        ConjureType second = ConjureType.fromString("map<string, CachedAlias>");
+
+        assertThat(first)
+                .isEqualTo(MapType.of(PrimitiveType.STRING, LocalReferenceType.of(TypeName.of("CachedAlias"))))
+                .isSameAs(second);
+        CacheStats delta = ConjureTypeCache.stats().minus(before);
+        assertThat(delta.hitCount()).isGreaterThanOrEqualTo(1);
+        assertThat(delta.requestCount()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    public void testParseExceptionsPropagate() {
+        assertThatThrownBy(() -> ConjureTypeCache.parse("list<string"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Expected endToken");
+        assertThatThrownBy(() -> ConjureTypeCache.parse("list<string"))
+                .isInstanceOf(ParseException.class);
+    }
+
+    @Test
+    public void testIllegalArgumentExceptionsPropagate() {
+        assertThatThrownBy(() -> ConjureTypeCache.parse("list<notAType>"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("TypeNames must be a primitive type");
+    }
+}
@@ -17,6 +17,7 @@
 package com.palantir.conjure.parser.types;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.palantir.conjure.parser.types.builtin.AnyType;
@@ -31,7 +32,11 @@ import com.palantir.conjure.parser.types.primitive.PrimitiveType;
 import com.palantir.conjure.parser.types.reference.ForeignReferenceType;
 import com.palantir.conjure.parser.types.reference.LocalReferenceType;
 import com.palantir.parsec.ParseException;
+import com.palantir.parsec.ParserState;
+import com.palantir.parsec.Parsers;
+import com.palantir.parsec.StringParserState;
 import java.io.IOException;
+import java.util.Random;
 import org.junit.Test;
 
 public final class TypeParserTests {
@@ -178,6 +183,65 @@ public final class TypeParserTests {
         TypeParser.INSTANCE.parse("[]");
     }
 
+    @Test
+    public void testParser_errorPositions() {
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("mapping"))
+                .hasMessageStartingWith("Expected startToken\nat or before character 7\n");
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("list<string"))
+                .hasMessageStartingWith("Expected endToken\nat or before character 11\n");
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("map<string, >"))
+                .hasMessageStartingWith("Found key 'STRING' without associated value.");
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("list<>"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Expected type");
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse(".Foo"))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Expected namespace");
+        assertThatThrownBy(() -> TypeParser.INSTANCE.parse("list<foo>"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testParser_matchesCombinatorParser() {
+        String[] tokens = {
+                "map", "list", "set", "optional", "any", "binary", "datetime", "string", "Foo", "ns", "foo",
+                ".", "<", ">", ",", " ", "x", "1", "$", "[]"};
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder input = new StringBuilder();
+            int length = random.nextInt(8);
+            for (int j = 0; j < length; j++) {
+                input.append(tokens[random.nextInt(tokens.length)]);
+            }
+            String combinatorResult = parseWithCombinators(input.toString());
+            // the combinator parser fails with NullPointerExceptions on missing inner types
+            if (!combinatorResult.startsWith(NullPointerException.class.getName())) {
+                assertThat(parseWithTypeParser(input.toString())).as(input.toString()).isEqualTo(combinatorResult);
+            }
+        }
+    }
+
+    private static String parseWithTypeParser(String input) {
+        try {
+            return TypeParser.INSTANCE.parse(input).toString();
+        } catch (Exception e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
+    private static String parseWithCombinators(String input) {
+        try {
+            ParserState state = new StringParserState(input);
+            ConjureType result = Parsers.eof(TypeParser.INSTANCE).parse(state);
+            if (result == null) {
+                throw new ParseException(input, state);
+            }
+            return result.toString();
+        } catch (Exception e) {
+            return e.getClass().getName() + ": " + e.getMessage();
+        }
+    }
+
     @Test
     public void testDeserializer_stringType() throws IOException {
         assertThat(new ObjectMapper().readValue("\"string\"", ConjureType.class))
@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.parsec.CharArrayParserState;
+import com.palantir.parsec.FileParserState;
+import com.palantir.parsec.ParseException;
+import com.palantir.parsec.Parsers;
+import com.palantir.parsec.parsers.ExpectantParser;
+import com.palantir.parsec.parsers.ExpectationResult;
+import com.palantir.parsec.parsers.QuotedStringParser;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class CharArrayParserStateTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Test
+    public void testTracksLinesAndColumns() {
+        CharArrayParserState state = new CharArrayParserState("ab\ncd");
+        assertThat(state.curr()).isEqualTo('a');
+        assertPosition(state, 0, 1, 1);
+
+        state.next();
+        state.next();
+        assertThat(state.curr()).isEqualTo('\n');
+        assertPosition(state, 2, 1, 3);
+
+        assertThat(state.next()).isEqualTo('c');
+        assertPosition(state, 3, 2, 1);
+
+        state.next();
+        assertThat(state.next()).isEqualTo(-1);
+        assertThat(state.next()).isEqualTo(-1);
+        assertPosition(state, 5, 2, 3);
+    }
+
+    @Test
+    public void testMarksRestoreLinesAndColumns() {
+        CharArrayParserState state = new CharArrayParserState("a\nb\nc\nd");
+        for (int i = 0; i < 100; i++) {
+            state.mark();
+        }
+        state.next();
+        state.next();
+        state.mark();
+        state.next();
+        state.next();
+        assertPosition(state, 4, 3, 1);
+
+        state.rewind();
+        assertPosition(state, 2, 2, 1);
+        for (int i = 0; i < 99; i++) {
+            state.release();
+        }
+        state.rewind();
+        assertPosition(state, 0, 1, 1);
+    }
+
+    @Test
+    public void testParsesLikeStringParserState() throws ParseException {
+        assertThat(new ExpectantParser("abcdef").parse(new CharArrayParserState("abcdef")))
+                .isEqualTo(ExpectationResult.CORRECT);
+        assertThat(new ExpectantParser("abcdef").parse(new CharArrayParserState("abcdeg")))
+                .isEqualTo(ExpectationResult.INCORRECT);
+        assertThat(Parsers.whitespace(new QuotedStringParser()).parse(new CharArrayParserState(" \"Test 123\"")))
+                .isEqualTo("Test 123");
+    }
+
+    @Test
+    public void testFileParserStateReportsPositions() throws IOException {
+        File file = temporaryFolder.newFile("input.txt");
+        Files.write(file.toPath(), "first\nsecond".getBytes(StandardCharsets.UTF_8));
+
+        FileParserState state = new FileParserState(file);
+        assertThat(new ExpectantParser("first\nse").parse(state)).isEqualTo(ExpectationResult.CORRECT);
+        assertThat(state.getCharPosition()).isEqualTo(8);
+        assertThat(state.getLine()).isEqualTo(2);
+        assertThat(state.getColumn()).isEqualTo(3);
+    }
+
+    private static void assertPosition(CharArrayParserState state, int position, int line, int column) {
+        assertThat(state.getCharPosition()).isEqualTo(position);
+        assertThat(state.getLine()).isEqualTo(line);
+        assertThat(state.getColumn()).isEqualTo(column);
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.parsec.tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.parsec.PackratParserState;
+import com.palantir.parsec.ParseException;
+import com.palantir.parsec.Parser;
+import com.palantir.parsec.ParserState;
+import com.palantir.parsec.Parsers;
+import com.palantir.parsec.StringParserState;
+import com.palantir.parsec.parsers.ExpectantParser;
+import com.palantir.parsec.parsers.RawStringParser;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public final class PackratParserStateTest {
+
+    private final AtomicInteger invocations = new AtomicInteger();
+    private final Parser<String> word = input -> {
+        invocations.incrementAndGet();
+        return new RawStringParser(new RawStringParser.AllowableCharacters() {
+            @Override
+            public boolean isAllowed(char character) {
+                return Character.isLetter(character);
+            }
+
+            @Override
+            public String getDescription() {
+                return "Character.isLetter";
+            }
+        }).parse(input);
+    };
+
+    @Test
+    public void testMemoizesAcrossBacktracking() throws ParseException {
+        Parser<String> memoizedWord = Parsers.memoize(word);
+        Parser<String> grammar = Parsers.or(
+                followedBy(memoizedWord, ";"),
+                followedBy(memoizedWord, ","),
+                followedBy(memoizedWord, "."));
+
+        assertThat(grammar.parse(new StringParserState("a\nbc."))).isNull();
+        assertThat(invocations.get()).isEqualTo(3);
+
+        invocations.set(0);
+        PackratParserState state = new PackratParserState("abc.");
+        assertThat(grammar.parse(state)).isEqualTo("abc");
+        assertThat(invocations.get()).isEqualTo(1);
+        assertThat(state.getCharPosition()).isEqualTo(4);
+    }
+
+    @Test
+    public void testReplaysEndPosition() throws ParseException {
+        Parser<String> memoizedWord = Parsers.memoize(Parsers.whitespace(word));
+        PackratParserState state = new PackratParserState("\n\n  abc def");
+
+        state.mark();
+        assertThat(memoizedWord.parse(state)).isEqualTo("abc");
+        assertThat(state.getCharPosition()).isEqualTo(7);
+        state.rewind();
+        assertThat(state.getLine()).isEqualTo(1);
+
+        assertThat(memoizedWord.parse(state)).isEqualTo("abc");
+        assertThat(invocations.get()).isEqualTo(1);
+        assertThat(state.getCharPosition()).isEqualTo(7);
+        assertThat(state.getLine()).isEqualTo(3);
+        assertThat(state.getColumn()).isEqualTo(6);
+
+        assertThat(memoizedWord.parse(state)).isEqualTo("def");
+        assertThat(invocations.get()).isEqualTo(2);
+    }
+
+    private static Parser<String> followedBy(Parser<String> parser, String terminator) {
+        return new Parser<String>() {
+            @Override
+            public String parse(ParserState input) throws ParseException {
+                String result = parser.parse(input);
+                if (result == null || Parsers.nullOrUnexpected(new ExpectantParser(terminator).parse(input))) {
+                    return null;
+                }
+                return result;
+            }
+        };
+    }
+}
@@ -17,6 +17,7 @@
 package com.palantir.parsec.tests;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.palantir.parsec.ParseException;
 import com.palantir.parsec.Parser;
@@ -24,6 +25,7 @@ import com.palantir.parsec.Parsers;
 import com.palantir.parsec.StringParserState;
 import com.palantir.parsec.parsers.BetweenParser;
 import com.palantir.parsec.parsers.BooleanParser;
+import com.palantir.parsec.parsers.DefaultingDispatchingParser;
 import com.palantir.parsec.parsers.DispatchingParser;
 import com.palantir.parsec.parsers.ExpectantParser;
 import com.palantir.parsec.parsers.ExpectationResult;
@@ -71,6 +73,34 @@ public final class TestUnitParsers {
                 .parse(new StringParserState("dir1 abc\ndir2 \"def\n\"\n"))).isEqualTo("def");
     }
 
+    @Test
+    public void testDispatchingParserUnknownDirective() {
+        Map<String, Parser<String>> map = new HashMap<String, Parser<String>>();
+        map.put("dir1", new RawStringParser());
+        map.put("dir12", new RawStringParser());
+
+        assertThatThrownBy(() -> new DispatchingParser<String>(map, Parsers.whitespace())
+                .parse(new StringParserState("dir1 abc\ndir123 def\n")))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Unknown directive 'dir123'.");
+    }
+
+    @Test
+    public void testDefaultingDispatchingParser() throws ParseException {
+        Map<String, Parser<String>> map = new HashMap<String, Parser<String>>();
+        map.put("dir1", new RawStringParser());
+        map.put("dir2", new QuotedStringParser());
+        DefaultingDispatchingParser<String> parser = new DefaultingDispatchingParser<String>(map, Parsers.whitespace());
+
+        assertThat(parser.parse(new StringParserState("dir1 abc\ndir2 \"def\"\n"))).isEqualTo("def");
+        assertThatThrownBy(() -> parser.parse(new StringParserState("dir1 abc\ndir3 ghi")))
+                .isInstanceOf(ParseException.class)
+                .hasMessageStartingWith("Unknown directive 'dir3' and no default parser specified.");
+
+        parser.setDefaultParser(Parsers.whitespace(new RawStringParser()));
+        assertThat(parser.parse(new StringParserState("dir1 abc\ndir3"))).isEqualTo("dir3");
+    }
+
     @Test
     public void testExpectantParser() {
         assertThat(new ExpectantParser("abcdef").parse(new StringParserState("abcdef")))
@@ -156,6 +186,45 @@ public final class TestUnitParsers {
                 .isEqualTo("abcdef");
     }
 
+    @Test
+    public void testDispatchParser() throws ParseException {
+        Parser<String> keyword = input -> Parsers.nullOrUnexpected(new ExpectantParser("key:").parse(input))
+                ? null
+                : new RawStringParser().parse(input);
+        Parser<String> parser = Parsers.dispatch(
+                Parsers.startingWith("key", keyword),
+                Parsers.startingWithAnyOf("\"", new QuotedStringParser()),
+                Parsers.startingWith(new RawStringParser.AllowableCharacters() {
+                    @Override
+                    public boolean isAllowed(char character) {
+                        return Character.isLetter(character);
+                    }
+
+                    @Override
+                    public String getDescription() {
+                        return "Character.isLetter";
+                    }
+                }, new RawStringParser()));
+
+        assertThat(parser.parse(new StringParserState("key:value"))).isEqualTo("value");
+        assertThat(parser.parse(new StringParserState("\"abc def\""))).isEqualTo("abc def");
+        // first characters overlap with the keyword alternative: falls back to the next viable alternative
+        assertThat(parser.parse(new StringParserState("kettle"))).isEqualTo("kettle");
+        assertThat(parser.parse(new StringParserState("123"))).isNull();
+        assertThat(parser.parse(new StringParserState(""))).isNull();
+    }
+
+    @Test
+    public void testDispatchParserRewindsFailedAlternatives() throws ParseException {
+        StringParserState state = new StringParserState("abd");
+        Parser<ExpectationResult> parser = Parsers.dispatch(
+                Parsers.startingWith("abc", new ExpectantParser("abc")),
+                Parsers.startingWith("abd", new ExpectantParser("abx")));
+
+        assertThat(parser.parse(state)).isEqualTo(ExpectationResult.INCORRECT);
+        assertThat(state.getCharPosition()).isEqualTo(0);
+    }
+
     private static final Parser<String> rsp = Parsers.prefix(Parsers.whitespace(), new RawStringParser());
     private static final Parser<Boolean> bp = Parsers.prefix(Parsers.whitespace(), new BooleanParser());
 
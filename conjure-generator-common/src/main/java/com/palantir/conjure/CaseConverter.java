@@ -5,6 +5,7 @@
 package com.palantir.conjure;
 
 import com.google.common.base.CaseFormat;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
 
 public final class CaseConverter {
@@ -18,7 +19,7 @@ public final class CaseConverter {
     private CaseConverter() {}
 
     public enum Case {
-        LOWER_CAMEL_CASE(CAMEL_CASE_PATTERN) {
+        LOWER_CAMEL_CASE(CAMEL_CASE_PATTERN, CaseConverter::isLowerCamelCase) {
             @Override
             public String convertTo(String name, Case targetCase) {
                 switch (targetCase) {
@@ -32,7 +33,7 @@ public final class CaseConverter {
                 throw new IllegalArgumentException("Unexpected case: " + targetCase);
             }
         },
-        KEBAB_CASE(KEBAB_CASE_PATTERN) {
+        KEBAB_CASE(KEBAB_CASE_PATTERN, name -> isSeparatedCase(name, '-')) {
             @Override
             public String convertTo(String name, Case targetCase) {
                 switch (targetCase) {
@@ -46,7 +47,7 @@ public final class CaseConverter {
                 throw new IllegalArgumentException("Unexpected case: " + targetCase);
             }
         },
-        SNAKE_CASE(SNAKE_CASE_PATTERN) {
+        SNAKE_CASE(SNAKE_CASE_PATTERN, name -> isSeparatedCase(name, '_')) {
             @Override
             public String convertTo(String name, Case targetCase) {
                 switch (targetCase) {
@@ -62,15 +63,22 @@ public final class CaseConverter {
         };
 
         private final Pattern pattern;
+        private final Predicate<String> recognizer;
 
-        Case(Pattern pattern) {
+        Case(Pattern pattern, Predicate<String> recognizer) {
             this.pattern = pattern;
+            this.recognizer = recognizer;
         }
 
         public Pattern getPattern() {
             return pattern;
         }
 
+        /** Returns true if the given name matches {@link #getPattern()}, without going through the regex engine. */
+        public boolean matches(String name) {
+            return recognizer.test(name);
+        }
+
         @Override
         public String toString() {
             return name() + "[" + pattern + "]";
@@ -85,10 +93,80 @@ public final class CaseConverter {
 
     private static Case nameCase(String name) {
         for (Case nameCase : Case.values()) {
-            if (nameCase.pattern.matcher(name).matches()) {
+            if (nameCase.matches(name)) {
                 return nameCase;
             }
         }
         throw new IllegalArgumentException("Unexpected case for: " + name);
     }
+
+    /** Returns true if any of the {@link Case}s matches the given name. */
+    public static boolean isAnyCase(String name) {
+        return isLowerCamelCase(name) || isSeparatedCase(name, '-') || isSeparatedCase(name, '_');
+    }
+
+    /**
+     * Matches {@link #CAMEL_CASE_PATTERN}: a lower case letter followed by letters and digits, where a run of upper
+     * case letters is at most two long when followed by a lower case letter or digit, and at most one long at the end.
+     */
+    private static boolean isLowerCamelCase(String name) {
+        if (name.isEmpty() || !isLower(name.charAt(0))) {
+            return false;
+        }
+        int upperRun = 0;
+        for (int i = 1; i < name.length(); i++) {
+            char ch = name.charAt(i);
+            if (isUpper(ch)) {
+                if (++upperRun > 2) {
+                    return false;
+                }
+            } else if (isLower(ch) || isDigit(ch)) {
+                upperRun = 0;
+            } else {
+                return false;
+            }
+        }
+        return upperRun <= 1;
+    }
+
+    /**
+     * Matches {@link #KEBAB_CASE_PATTERN} or {@link #SNAKE_CASE_PATTERN} for the given separator: a lower case letter
+     * followed by lower case letters, digits and separators, where each separator is followed by a lower case letter.
+     * A run of such one letter words is at most two long when followed by a letter or digit, and at most one long at
+     * the end.
+     */
+    private static boolean isSeparatedCase(String name, char separator) {
+        if (name.isEmpty() || !isLower(name.charAt(0))) {
+            return false;
+        }
+        int wordRun = 0;
+        int i = 1;
+        while (i < name.length()) {
+            char ch = name.charAt(i);
+            if (ch == separator) {
+                if (i + 1 == name.length() || !isLower(name.charAt(i + 1)) || ++wordRun > 2) {
+                    return false;
+                }
+                i += 2;
+            } else if (isLower(ch) || isDigit(ch)) {
+                wordRun = 0;
+                i++;
+            } else {
+                return false;
+            }
+        }
+        return wordRun <= 1;
+    }
+
+    private static boolean isLower(char ch) {
+        return ch >= 'a' && ch <= 'z';
+    }
+
+    private static boolean isUpper(char ch) {
+        return ch >= 'A' && ch <= 'Z';
+    }
+
+    private static boolean isDigit(char ch) {
+        return ch >= '0' && ch <= '9';
+    }
 }
@@ -0,0 +1,124 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.format.DataFormatDetector;
+import com.fasterxml.jackson.core.format.DataFormatMatcher;
+import com.fasterxml.jackson.core.format.MatchStrength;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the IR of a {@link ConjureDefinition} in any {@link IrEncoding}, optionally gzip-compressed, with or without
+ * a {@link TypeTableIr type table}. The encoding and compression are detected from the first bytes and the type
+ * table from the format of the file, so generators need no flags to read what the compiler wrote.
+ */
+public final class ConjureDefinitionReader {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new Jdk8Module());
+    // Smile claims a solid match for the self-describe tag of CBOR, so only a full match may stop the detection early
+    private static final DataFormatDetector DETECTOR = new DataFormatDetector(Arrays.stream(IrEncoding.values())
+            .map(IrEncoding::newFactory)
+            .toArray(JsonFactory[]::new))
+            .withOptimalMatch(MatchStrength.FULL_MATCH);
+
+    private static final int GZIP_MAGIC_FIRST_BYTE = 0x1f;
+    private static final int GZIP_MAGIC_SECOND_BYTE = 0x8b;
+
+    private ConjureDefinitionReader() {}
+
+    public static ConjureDefinition read(File file) throws IOException {
+        try (InputStream input = new FileInputStream(file)) {
+            return read(input);
+        }
+    }
+
+    /** Reads a definition from the given stream, which is not closed. */
+    public static ConjureDefinition read(InputStream input) throws IOException {
+        InputStream markable = input.markSupported() ? input : new BufferedInputStream(input);
+        if (!isGzip(markable)) {
+            return readDecompressed(markable);
+        }
+        // closing the gzip stream releases its native inflater, but must leave the given stream open
+        try (InputStream decompressed = new GZIPInputStream(new FilterInputStream(markable) {
+            @Override
+            public void close() {}
+        })) {
+            return readDecompressed(decompressed);
+        }
+    }
+
+    /**
+     * Reads the first field of the file, which is the format of a file with a {@link TypeTableIr}, and otherwise
+     * replays it before the rest of the definition.
+     */
+    private static ConjureDefinition read(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return MAPPER.readValue(parser, ConjureDefinition.class);
+        }
+        TokenBuffer peeked = new TokenBuffer(parser);
+        peeked.writeStartObject();
+        if (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            if (field.equals(TypeTableIr.FORMAT_FIELD)) {
+                return TypeTableIr.read(parser);
+            }
+            peeked.writeFieldName(field);
+            peeked.copyCurrentStructure(parser);
+        } else {
+            peeked.copyCurrentEvent(parser);
+        }
+        return MAPPER.readValue(
+                JsonParserSequence.createFlattened(false, peeked.asParser(), parser), ConjureDefinition.class);
+    }
+
+    private static ConjureDefinition readDecompressed(InputStream decompressed) throws IOException {
+        DataFormatMatcher match = DETECTOR.findFormat(decompressed);
+        if (!match.hasMatch()) {
+            throw new IOException("Not a Conjure IR in any of the encodings " + Arrays.toString(IrEncoding.values()));
+        }
+        try (JsonParser parser = match.createParserWithMatch()) {
+            parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+            return read(parser);
+        }
+    }
+
+    /** Detects the gzip magic number without consuming it. */
+    private static boolean isGzip(InputStream input) throws IOException {
+        input.mark(2);
+        try {
+            return input.read() == GZIP_MAGIC_FIRST_BYTE && input.read() == GZIP_MAGIC_SECOND_BYTE;
+        } finally {
+            input.reset();
+        }
+    }
+}
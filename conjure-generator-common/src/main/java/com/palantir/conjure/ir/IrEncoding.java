@@ -0,0 +1,50 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+/**
+ * The encodings in which the IR of a {@link com.palantir.conjure.spec.ConjureDefinition} can be written; all of them
+ * encode the same data model, so generators can read any of them with {@link ConjureDefinitionReader}.
+ */
+public enum IrEncoding {
+    /** Text JSON, the default. */
+    JSON,
+
+    /** Jackson's binary JSON, which starts with the header {@code :)\n}. */
+    SMILE,
+
+    /** RFC 7049 CBOR, written with the self-describe tag so that it can be told apart from other encodings. */
+    CBOR;
+
+    /** Returns a new factory of parsers and generators of this encoding. */
+    public JsonFactory newFactory() {
+        switch (this) {
+            case JSON:
+                return new JsonFactory();
+            case SMILE:
+                return new SmileFactory();
+            case CBOR:
+                return CBORFactory.builder().enable(CBORGenerator.Feature.WRITE_TYPE_HEADER).build();
+        }
+        throw new IllegalStateException("Unknown encoding: " + this);
+    }
+}
@@ -0,0 +1,315 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.SetType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeName;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Version 2 of the IR file, in which each distinct {@link Type} is written once in a table and referenced by its index
+ * everywhere else, instead of being nested in full wherever it is used:
+ *
+ * <pre>{@code
+ * {
+ *   "irFormat" : "type-table",
+ *   "typeTable" : [
+ *     { "type" : "primitive", "primitive" : "STRING" },
+ *     { "type" : "list", "list" : { "itemType" : 0 } }
+ *   ],
+ *   "definition" : { "version" : 1, "errors" : [ ], "types" : [ ... ], "services" : [ ... ] }
+ * }
+ * }</pre>
+ *
+ * <p>Each entry of the table has the JSON form of a {@link Type}, except that the types nested in it are indices of
+ * earlier entries, so the table is decoded in a single pass. The definition has its usual form with every type
+ * replaced by its index. The file is told apart from a plain definition by its {@code irFormat} field, since the
+ * {@code version} field belongs to the definition and keeps following {@code Conjure.SUPPORTED_IR_VERSION};
+ * {@link ConjureDefinitionReader} reads both versions of the file into the same {@link ConjureDefinition}.
+ */
+public final class TypeTableIr {
+
+    /** The version of the IR file with a type table, which is independent of the version of the definition. */
+    public static final int VERSION = 2;
+
+    static final String FORMAT_FIELD = "irFormat";
+    private static final String FORMAT = "type-table";
+    private static final String TYPE_TABLE_FIELD = "typeTable";
+    private static final String DEFINITION_FIELD = "definition";
+    private static final String KIND_FIELD = "type";
+
+    private static final String PRIMITIVE = "primitive";
+    private static final String OPTIONAL = "optional";
+    private static final String LIST = "list";
+    private static final String SET = "set";
+    private static final String MAP = "map";
+    private static final String REFERENCE = "reference";
+    private static final String EXTERNAL = "external";
+
+    // the key of the TypeTable of a write, or of the decoded List<Type> of a read, in the Jackson attributes
+    private static final Object TYPE_TABLE_ATTRIBUTE = new Object();
+
+    // the form of each type as an entry of the table
+    private static final Type.Visitor<Entry> ENTRY = new Type.Visitor<Entry>() {
+        @Override
+        public Entry visitPrimitive(PrimitiveType value) {
+            return new Entry(PRIMITIVE, value, ImmutableList.of());
+        }
+
+        @Override
+        public Entry visitOptional(OptionalType value) {
+            return new Entry(OPTIONAL, value, ImmutableList.of(value.getItemType()));
+        }
+
+        @Override
+        public Entry visitList(ListType value) {
+            return new Entry(LIST, value, ImmutableList.of(value.getItemType()));
+        }
+
+        @Override
+        public Entry visitSet(SetType value) {
+            return new Entry(SET, value, ImmutableList.of(value.getItemType()));
+        }
+
+        @Override
+        public Entry visitMap(MapType value) {
+            return new Entry(MAP, value, ImmutableList.of(value.getKeyType(), value.getValueType()));
+        }
+
+        @Override
+        public Entry visitReference(TypeName value) {
+            return new Entry(REFERENCE, value, ImmutableList.of());
+        }
+
+        @Override
+        public Entry visitExternal(ExternalReference value) {
+            return new Entry(EXTERNAL, value, ImmutableList.of(value.getFallback()));
+        }
+
+        @Override
+        public Entry visitUnknown(String unknownType) {
+            throw new IllegalArgumentException("Cannot write a type of unknown kind to the type table: " + unknownType);
+        }
+    };
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new Jdk8Module())
+            .registerModule(module());
+
+    private TypeTableIr() {}
+
+    /**
+     * Returns a Jackson module which writes each {@link Type} as its index in the type table, which the mappers given
+     * to {@link #write} must register.
+     */
+    public static Module module() {
+        return new SimpleModule("ConjureTypeTable")
+                .addSerializer(Type.class, new TypeIndexSerializer())
+                .addDeserializer(Type.class, new TypeIndexDeserializer());
+    }
+
+    /**
+     * Writes the given definition with a type table.
+     *
+     * @param mapper the mapper serializing the definition, which must have registered {@link #module()}
+     */
+    public static void write(ConjureDefinition definition, JsonGenerator generator, ObjectMapper mapper)
+            throws IOException {
+        TypeTable table = new TypeTable();
+        ObjectWriter writer = mapper.writer().withAttribute(TYPE_TABLE_ATTRIBUTE, table);
+        // the table is filled while serializing the definition, but must be written before it
+        TokenBuffer definitionTokens = new TokenBuffer(mapper, false);
+        writer.writeValue(definitionTokens, definition);
+
+        generator.writeStartObject();
+        generator.writeStringField(FORMAT_FIELD, FORMAT);
+        generator.writeFieldName(TYPE_TABLE_FIELD);
+        generator.writeStartArray();
+        for (Type type : table.types) {
+            Entry entry = type.accept(ENTRY);
+            generator.writeStartObject();
+            generator.writeStringField(KIND_FIELD, entry.kind);
+            generator.writeFieldName(entry.kind);
+            writer.writeValue(generator, entry.value);
+            generator.writeEndObject();
+        }
+        generator.writeEndArray();
+        generator.writeFieldName(DEFINITION_FIELD);
+        definitionTokens.serialize(generator);
+        generator.writeEndObject();
+    }
+
+    /** Reads the rest of a file with a type table from a parser positioned at the value of its format. */
+    static ConjureDefinition read(JsonParser parser) throws IOException {
+        expect(parser, parser.hasToken(JsonToken.VALUE_STRING) && parser.getText().equals(FORMAT),
+                "Expected the IR format " + FORMAT);
+        List<Type> types = new ArrayList<>();
+        ObjectReader reader = MAPPER.reader().withAttribute(TYPE_TABLE_ATTRIBUTE, types);
+
+        nextField(parser, TYPE_TABLE_FIELD);
+        expect(parser, parser.nextToken() == JsonToken.START_ARRAY, "Expected the type table to be an array");
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            types.add(readEntry(parser, reader));
+        }
+        expect(parser, parser.hasToken(JsonToken.END_ARRAY), "Expected an entry of the type table");
+
+        nextField(parser, DEFINITION_FIELD);
+        parser.nextToken();
+        ConjureDefinition definition = reader.readValue(parser, ConjureDefinition.class);
+        expect(parser, parser.nextToken() == JsonToken.END_OBJECT, "Expected the definition to be the last field");
+        return definition;
+    }
+
+    private static Type readEntry(JsonParser parser, ObjectReader reader) throws IOException {
+        nextField(parser, KIND_FIELD);
+        String kind = parser.nextTextValue();
+        expect(parser, kind != null, "Expected the kind of a type to be a string");
+        nextField(parser, kind);
+        parser.nextToken();
+        Type type = readType(kind, parser, reader);
+        expect(parser, parser.nextToken() == JsonToken.END_OBJECT, "Expected the end of the type");
+        return type;
+    }
+
+    private static Type readType(String kind, JsonParser parser, ObjectReader reader) throws IOException {
+        switch (kind) {
+            case PRIMITIVE:
+                return Type.primitive(reader.readValue(parser, PrimitiveType.class));
+            case OPTIONAL:
+                return Type.optional(reader.readValue(parser, OptionalType.class));
+            case LIST:
+                return Type.list(reader.readValue(parser, ListType.class));
+            case SET:
+                return Type.set(reader.readValue(parser, SetType.class));
+            case MAP:
+                return Type.map(reader.readValue(parser, MapType.class));
+            case REFERENCE:
+                return Type.reference(reader.readValue(parser, TypeName.class));
+            case EXTERNAL:
+                return Type.external(reader.readValue(parser, ExternalReference.class));
+            default:
+                throw new JsonParseException(parser, "Unknown kind of type: " + kind);
+        }
+    }
+
+    private static void nextField(JsonParser parser, String name) throws IOException {
+        expect(parser, parser.nextToken() == JsonToken.FIELD_NAME && parser.getCurrentName().equals(name),
+                "Expected the field " + name);
+    }
+
+    private static void expect(JsonParser parser, boolean condition, String message) throws JsonParseException {
+        if (!condition) {
+            throw new JsonParseException(parser, message);
+        }
+    }
+
+    /** The distinct types of a definition, each after the types nested in it. */
+    private static final class TypeTable {
+        private final List<Type> types = new ArrayList<>();
+        private final Map<Type, Integer> indices = new HashMap<>();
+
+        int indexOf(Type type) {
+            Integer index = indices.get(type);
+            if (index == null) {
+                for (Type nested : type.accept(ENTRY).nested) {
+                    indexOf(nested);
+                }
+                index = types.size();
+                types.add(type);
+                indices.put(type, index);
+            }
+            return index;
+        }
+    }
+
+    private static final class TypeIndexSerializer extends StdSerializer<Type> {
+        private static final long serialVersionUID = 1L;
+
+        TypeIndexSerializer() {
+            super(Type.class);
+        }
+
+        @Override
+        public void serialize(Type value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            generator.writeNumber(((TypeTable) provider.getAttribute(TYPE_TABLE_ATTRIBUTE)).indexOf(value));
+        }
+    }
+
+    private static final class TypeIndexDeserializer extends StdDeserializer<Type> {
+        private static final long serialVersionUID = 1L;
+
+        TypeIndexDeserializer() {
+            super(Type.class);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Type deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            if (!parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                throw context.wrongTokenException(parser, Type.class, JsonToken.VALUE_NUMBER_INT,
+                        "Expected the index of an entry of the type table");
+            }
+            List<Type> types = (List<Type>) context.getAttribute(TYPE_TABLE_ATTRIBUTE);
+            int index = parser.getIntValue();
+            if (index < 0 || index >= types.size()) {
+                throw context.weirdNumberException(index, Type.class,
+                        "Not the index of an earlier entry of the type table");
+            }
+            return types.get(index);
+        }
+    }
+
+    /** A type in the form of a table entry: the name and value of its union member, and the types nested in it. */
+    private static final class Entry {
+        private final String kind;
+        private final Object value;
+        private final List<Type> nested;
+
+        Entry(String kind, Object value, List<Type> nested) {
+            this.kind = kind;
+            this.value = value;
+            this.nested = nested;
+        }
+    }
+}
@@ -18,23 +18,29 @@ package com.palantir.conjure.visitor;
 
 import com.google.common.base.Preconditions;
 import com.palantir.conjure.either.Either;
-import com.palantir.conjure.spec.AliasDefinition;
-import com.palantir.conjure.spec.EnumDefinition;
 import com.palantir.conjure.spec.ExternalReference;
 import com.palantir.conjure.spec.ListType;
 import com.palantir.conjure.spec.MapType;
-import com.palantir.conjure.spec.ObjectDefinition;
 import com.palantir.conjure.spec.OptionalType;
 import com.palantir.conjure.spec.PrimitiveType;
 import com.palantir.conjure.spec.SetType;
 import com.palantir.conjure.spec.Type;
 import com.palantir.conjure.spec.TypeDefinition;
 import com.palantir.conjure.spec.TypeName;
-import com.palantir.conjure.spec.UnionDefinition;
+import java.util.LinkedHashSet;
 import java.util.Map;
-
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves references through aliases, see {@link #dealias}. The resolution of each referenced {@link TypeName} is
+ * computed once and cached, so a single instance can be shared, also across threads, by every validator and generator
+ * working on the same types.
+ */
 public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefinition, Type>> {
     private final Map<TypeName, TypeDefinition> objects;
+    private final Map<TypeName, Either<TypeDefinition, Type>> dealiasedReferences = new ConcurrentHashMap<>();
 
     public DealiasingTypeVisitor(Map<TypeName, TypeDefinition> objects) {
         this.objects = objects;
@@ -54,37 +60,52 @@ public final class DealiasingTypeVisitor implements Type.Visitor<Either<TypeDefi
 
     @Override
     public Either<TypeDefinition, Type> visitReference(TypeName value) {
+        return dealiasReference(value, new LinkedHashSet<>());
+    }
+
+    /**
+     * Resolves the given reference, where {@code path} holds the aliases which are being resolved to the reference,
+     * in order to report alias cycles instead of recursing endlessly.
+     */
+    private Either<TypeDefinition, Type> dealiasReference(TypeName value, Set<TypeName> path) {
+        // not computeIfAbsent since resolving an alias recursively resolves its target, see JDK-8062841
+        Either<TypeDefinition, Type> result = dealiasedReferences.get(value);
+        if (result != null) {
+            return result;
+        }
+
+        if (!path.add(value)) {
+            throw new IllegalStateException("Illegal cycle of aliases: " + path.stream()
+                    .map(TypeName::getName)
+                    .collect(Collectors.joining(" -> ", "", " -> " + value.getName())));
+        }
         TypeDefinition typeDefinition = objects.get(value);
         Preconditions.checkState(
                 typeDefinition != null,
                 "Referenced TypeDefinition not found in map of types for TypeName: %s", value);
-        return typeDefinition.accept(new TypeDefinition.Visitor<Either<TypeDefinition, Type>>() {
-            @Override
-            public Either<TypeDefinition, Type> visitAlias(AliasDefinition value) {
-                // Recursively visit target of alias
-                return value.getAlias().accept(DealiasingTypeVisitor.this);
-            }
-
-            @Override
-            public Either<TypeDefinition, Type> visitEnum(EnumDefinition value) {
-                return Either.left(TypeDefinition.enum_(value));
-            }
-
-            @Override
-            public Either<TypeDefinition, Type> visitObject(ObjectDefinition value) {
-                return Either.left(TypeDefinition.object(value));
-            }
-
-            @Override
-            public Either<TypeDefinition, Type> visitUnion(UnionDefinition value) {
-                return Either.left(TypeDefinition.union(value));
-            }
-
-            @Override
-            public Either<TypeDefinition, Type> visitUnknown(String unknownType) {
-                throw new IllegalStateException("Unsupported type: " + unknownType);
-            }
-        });
+        if (typeDefinition.accept(TypeDefinitionVisitor.IS_ALIAS)) {
+            // Recursively resolve target of alias
+            result = dealiasTarget(typeDefinition.accept(TypeDefinitionVisitor.ALIAS).getAlias(), path);
+        } else if (typeDefinition.accept(TypeDefinitionVisitor.IS_OBJECT)
+                || typeDefinition.accept(TypeDefinitionVisitor.IS_ENUM)
+                || typeDefinition.accept(TypeDefinitionVisitor.IS_UNION)) {
+            result = Either.left(typeDefinition);
+        } else {
+            throw new IllegalStateException("Unsupported type: " + typeDefinition);
+        }
+        path.remove(value);
+
+        Either<TypeDefinition, Type> previous = dealiasedReferences.putIfAbsent(value, result);
+        return previous != null ? previous : result;
+    }
+
+    private Either<TypeDefinition, Type> dealiasTarget(Type target, Set<TypeName> path) {
+        if (target.accept(TypeVisitor.IS_EXTERNAL)) {
+            return dealiasTarget(target.accept(TypeVisitor.EXTERNAL).getFallback(), path);
+        } else if (target.accept(TypeVisitor.IS_REFERENCE)) {
+            return dealiasReference(target.accept(TypeVisitor.REFERENCE), path);
+        }
+        return target.accept(this);
     }
 
     // Identity mapping for here onwards.
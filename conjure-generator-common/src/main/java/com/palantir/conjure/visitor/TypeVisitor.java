@@ -23,6 +23,7 @@ public final class TypeVisitor {
     public static final SetTypeVisitor SET = new SetTypeVisitor();
     public static final OptionalTypeVisitor OPTIONAL = new OptionalTypeVisitor();
     public static final ReferenceTypeVisitor REFERENCE = new ReferenceTypeVisitor();
+    public static final ExternalTypeVisitor EXTERNAL = new ExternalTypeVisitor();
 
     public static final IsPrimitiveTypeVisitor IS_PRIMITIVE = new IsPrimitiveTypeVisitor();
     public static final IsOptionalTypeVisitor IS_OPTIONAL = new IsOptionalTypeVisitor();
@@ -30,6 +31,7 @@ public final class TypeVisitor {
     public static final IsSetTypeVisitor IS_SET = new IsSetTypeVisitor();
     public static final IsMapTypeVisitor IS_MAP = new IsMapTypeVisitor();
     public static final IsReferenceTypeVisitor IS_REFERENCE = new IsReferenceTypeVisitor();
+    public static final IsExternalTypeVisitor IS_EXTERNAL = new IsExternalTypeVisitor();
 
     public static final IsPrimitiveOrReferenceType IS_PRIMITIVE_OR_REFERENCE = new IsPrimitiveOrReferenceType();
     public static final IsBinaryType IS_BINARY = new IsBinaryType();
@@ -82,6 +84,13 @@ public final class TypeVisitor {
         }
     }
 
+    private static final class IsExternalTypeVisitor extends IsTypeVisitor {
+        @Override
+        public Boolean visitExternal(ExternalReference _value) {
+            return true;
+        }
+    }
+
     private static final class IsPrimitiveOrReferenceType extends IsTypeVisitor {
         @Override
         public Boolean visitPrimitive(PrimitiveType _value) {
@@ -217,6 +226,13 @@ public final class TypeVisitor {
         }
     }
 
+    private static final class ExternalTypeVisitor extends DefaultTypeVisitor<ExternalReference> {
+        @Override
+        public ExternalReference visitExternal(ExternalReference value) {
+            return value;
+        }
+    }
+
     private static final class MapTypeVisitor extends DefaultTypeVisitor<MapType> {
         @Override
         public MapType visitMap(MapType value) {
@@ -6,6 +6,7 @@ package com.palantir.conjure;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.Random;
 import org.junit.Test;
 
 public class CaseConverterTest {
@@ -46,4 +47,24 @@ public class CaseConverterTest {
         assertThat(CaseConverter.toCase(snakeCase, CaseConverter.Case.SNAKE_CASE)).isEqualTo(snakeCase);
     }
 
+    @Test
+    public void testCasesAgreeWithPatterns() {
+        // random short strings over an alphabet which exercises every branch of the patterns
+        String alphabet = "abzAZ09-_.";
+        Random random = new Random(0);
+        for (int i = 0; i < 200_000; i++) {
+            char[] chars = new char[random.nextInt(10)];
+            for (int j = 0; j < chars.length; j++) {
+                chars[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+            }
+            String name = new String(chars);
+            boolean anyCase = false;
+            for (CaseConverter.Case nameCase : CaseConverter.Case.values()) {
+                boolean expected = nameCase.getPattern().matcher(name).matches();
+                assertThat(nameCase.matches(name)).describedAs("%s matches %s", nameCase, name).isEqualTo(expected);
+                anyCase |= expected;
+            }
+            assertThat(CaseConverter.isAnyCase(name)).describedAs("any case matches %s", name).isEqualTo(anyCase);
+        }
+    }
 }
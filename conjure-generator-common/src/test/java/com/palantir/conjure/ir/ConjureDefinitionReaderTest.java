@@ -0,0 +1,177 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.ir;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Test;
+
+public class ConjureDefinitionReaderTest {
+    private static final TypeName OBJECT = TypeName.of("Object", "com.palantir.product");
+
+    private static final ConjureDefinition DEFINITION = ConjureDefinition.builder()
+            .version(1)
+            .types(TypeDefinition.object(ObjectDefinition.builder()
+                    .typeName(OBJECT)
+                    .fields(FieldDefinition.of(FieldName.of("name"), Type.primitive(PrimitiveType.STRING),
+                            Documentation.of("The name, ünïcödé included.")))
+                    .build()))
+            .services(ServiceDefinition.builder()
+                    .serviceName(TypeName.of("Service", "com.palantir.product"))
+                    .endpoints(EndpointDefinition.builder()
+                            .endpointName(EndpointName.of("getObject"))
+                            .httpMethod(HttpMethod.GET)
+                            .httpPath(HttpPath.of("/object"))
+                            .returns(Type.optional(OptionalType.of(Type.reference(OBJECT))))
+                            .build())
+                    .build())
+            .build();
+
+    @Test
+    public void testReadsAllEncodings() throws IOException {
+        for (IrEncoding encoding : IrEncoding.values()) {
+            byte[] encoded = encode(encoding);
+            assertThat(ConjureDefinitionReader.read(new ByteArrayInputStream(encoded)))
+                    .describedAs("%s", encoding)
+                    .isEqualTo(DEFINITION);
+            assertThat(ConjureDefinitionReader.read(new ByteArrayInputStream(gzip(encoded))))
+                    .describedAs("gzipped %s", encoding)
+                    .isEqualTo(DEFINITION);
+        }
+    }
+
+    @Test
+    public void testReadsTypeTables() throws IOException {
+        for (IrEncoding encoding : IrEncoding.values()) {
+            ObjectMapper mapper = mapper(encoding).registerModule(TypeTableIr.module());
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(encoded)) {
+                TypeTableIr.write(DEFINITION, generator, mapper);
+            }
+            assertThat(ConjureDefinitionReader.read(new ByteArrayInputStream(encoded.toByteArray())))
+                    .describedAs("%s", encoding)
+                    .isEqualTo(DEFINITION);
+        }
+    }
+
+    @Test
+    public void testReadsLaterDefinitionVersionsWithoutTypeTable() throws IOException {
+        ConjureDefinition definition = ConjureDefinition.builder().from(DEFINITION).version(2).build();
+        assertThat(ConjureDefinitionReader.read(
+                new ByteArrayInputStream(mapper(IrEncoding.JSON).writeValueAsBytes(definition))))
+                .isEqualTo(definition);
+    }
+
+    @Test
+    public void testRejectsUnknownIrFormats() {
+        String json = "{\"irFormat\":\"other\",\"typeTable\":[],\"definition\":{\"version\":1}}";
+        assertThatThrownBy(() -> ConjureDefinitionReader.read(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Expected the IR format type-table");
+    }
+
+    @Test
+    public void testRejectsTypeIndicesOutsideTheTable() {
+        String json = "{\"irFormat\":\"type-table\",\"typeTable\":[],\"definition\":{\"version\":1,"
+                + "\"types\":[{\"type\":\"alias\","
+                + "\"alias\":{\"typeName\":{\"name\":\"Alias\",\"package\":\"com.palantir.product\"},\"alias\":0}}]}}";
+        assertThatThrownBy(() -> ConjureDefinitionReader.read(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Not the index of an earlier entry of the type table");
+    }
+
+    @Test
+    public void testReadsStreamsWithoutMarks() throws IOException {
+        InputStream unmarkable = new FilterInputStream(new ByteArrayInputStream(gzip(encode(IrEncoding.SMILE)))) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        assertThat(ConjureDefinitionReader.read(unmarkable)).isEqualTo(DEFINITION);
+    }
+
+    @Test
+    public void testLeavesGzippedStreamsOpen() throws IOException {
+        AtomicBoolean closed = new AtomicBoolean();
+        InputStream input = new FilterInputStream(new ByteArrayInputStream(gzip(encode(IrEncoding.JSON)))) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        assertThat(ConjureDefinitionReader.read(input)).isEqualTo(DEFINITION);
+        assertThat(closed).isFalse();
+    }
+
+    @Test
+    public void testRejectsUnknownEncodings() {
+        assertThatThrownBy(() -> ConjureDefinitionReader.read(
+                new ByteArrayInputStream("<xml/>".getBytes(StandardCharsets.UTF_8))))
+                .isInstanceOf(IOException.class)
+                .hasMessage("Not a Conjure IR in any of the encodings [JSON, SMILE, CBOR]");
+    }
+
+    private static byte[] encode(IrEncoding encoding) throws IOException {
+        return mapper(encoding).writeValueAsBytes(DEFINITION);
+    }
+
+    private static ObjectMapper mapper(IrEncoding encoding) {
+        return new ObjectMapper(encoding.newFactory())
+                .registerModule(new Jdk8Module())
+                .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (OutputStream output = new GZIPOutputStream(compressed)) {
+            output.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+}
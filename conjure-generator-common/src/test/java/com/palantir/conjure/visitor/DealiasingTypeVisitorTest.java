@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ */
+
+package com.palantir.conjure.visitor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableMap;
+import com.palantir.conjure.either.Either;
+import com.palantir.conjure.spec.AliasDefinition;
+import com.palantir.conjure.spec.ExternalReference;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import org.junit.Test;
+
+public class DealiasingTypeVisitorTest {
+    private static final TypeName OBJECT = TypeName.of("Object", "package");
+    private static final TypeName ALIAS = TypeName.of("Alias", "package");
+    private static final TypeName ALIAS_OF_ALIAS = TypeName.of("AliasOfAlias", "package");
+    private static final TypeName LIST_ALIAS = TypeName.of("ListAlias", "package");
+    private static final TypeName EXTERNAL_ALIAS = TypeName.of("ExternalAlias", "package");
+
+    private static final TypeDefinition OBJECT_DEFINITION =
+            TypeDefinition.object(ObjectDefinition.builder().typeName(OBJECT).build());
+    private static final Type LIST = Type.list(ListType.of(Type.reference(OBJECT)));
+
+    private final DealiasingTypeVisitor visitor = new DealiasingTypeVisitor(ImmutableMap.of(
+            OBJECT, OBJECT_DEFINITION,
+            ALIAS, alias(ALIAS, Type.reference(OBJECT)),
+            ALIAS_OF_ALIAS, alias(ALIAS_OF_ALIAS, Type.reference(ALIAS)),
+            LIST_ALIAS, alias(LIST_ALIAS, LIST),
+            EXTERNAL_ALIAS, alias(EXTERNAL_ALIAS, Type.external(ExternalReference.of(
+                    TypeName.of("External", "com.foo"), Type.reference(ALIAS_OF_ALIAS))))));
+
+    @Test
+    public void testDealiasesOuterLevelReferences() {
+        assertThat(visitor.dealias(Type.reference(ALIAS_OF_ALIAS))).isEqualTo(Either.left(OBJECT_DEFINITION));
+        assertThat(visitor.dealias(Type.reference(EXTERNAL_ALIAS))).isEqualTo(Either.left(OBJECT_DEFINITION));
+        assertThat(visitor.dealias(Type.reference(LIST_ALIAS))).isEqualTo(Either.right(LIST));
+        assertThat(visitor.dealias(Type.primitive(PrimitiveType.STRING)))
+                .isEqualTo(Either.right(Type.primitive(PrimitiveType.STRING)));
+    }
+
+    @Test
+    public void testCachesResolvedReferences() {
+        assertThat(visitor.dealias(Type.reference(ALIAS_OF_ALIAS)))
+                .isSameAs(visitor.dealias(Type.reference(ALIAS_OF_ALIAS)))
+                .isSameAs(visitor.dealias(Type.reference(ALIAS)));
+    }
+
+    @Test
+    public void testReportsAliasCycles() {
+        TypeName first = TypeName.of("First", "package");
+        TypeName second = TypeName.of("Second", "package");
+        DealiasingTypeVisitor cyclicVisitor = new DealiasingTypeVisitor(ImmutableMap.of(
+                first, alias(first, Type.reference(second)),
+                second, alias(second, Type.reference(first))));
+
+        assertThatThrownBy(() -> cyclicVisitor.dealias(Type.reference(first)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Illegal cycle of aliases: First -> Second -> First");
+    }
+
+    private static TypeDefinition alias(TypeName name, Type target) {
+        return TypeDefinition.alias(AliasDefinition.builder().typeName(name).alias(target).build());
+    }
+}
@@ -17,11 +17,15 @@
 package com.palantir.conjure.cli;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.ir.IrEncoding;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collection;
+import java.util.Optional;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.immutables.value.Value;
@@ -32,11 +36,44 @@ public abstract class CliConfiguration {
 
     abstract File outputIrFile();
 
+    @Value.Default
+    ValidationMode validationMode() {
+        return ValidationMode.SEQUENTIAL;
+    }
+
+    abstract Optional<File> cacheDirectory();
+
+    abstract Optional<File> incrementalStateFile();
+
+    /** Whether JSON IR is indented for humans, or written without whitespace. */
+    @Value.Default
+    boolean prettyPrint() {
+        return true;
+    }
+
+    @Value.Default
+    IrEncoding irEncoding() {
+        return IrEncoding.JSON;
+    }
+
+    /** The version of the IR file: that of the definition, or that of a {@link com.palantir.conjure.ir.TypeTableIr}. */
+    @Value.Default
+    int irVersion() {
+        return Conjure.SUPPORTED_IR_VERSION;
+    }
+
+    /** Whether the IR is gzip-compressed. */
+    @Value.Default
+    boolean gzip() {
+        return false;
+    }
+
     static Builder builder() {
         return new Builder();
     }
 
-    static CliConfiguration create(String input, String outputIrFile) {
+    /** Returns a builder with the input files resolved from the given file or directory, and the output IR file. */
+    static Builder builder(String input, String outputIrFile) {
         File inputFile = new File(input);
 
         Collection<File> inputFiles;
@@ -51,7 +88,9 @@ public abstract class CliConfiguration {
             throw new RuntimeException("Output IR file should not be a directory: " + outputFile);
         }
 
-        return new Builder().inputFiles(inputFiles).outputIrFile(outputFile).build();
+        return new Builder()
+                .inputFiles(inputFiles)
+                .outputIrFile(outputFile);
     }
 
     private static Collection<File> resolveInputFiles(File input) throws IOException {
@@ -20,17 +20,36 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
 import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.IncrementalCompiler;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.ir.IrEncoding;
+import com.palantir.conjure.ir.TypeTableIr;
+import com.palantir.conjure.parser.ParseCache;
 import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import picocli.CommandLine;
 
 @CommandLine.Command(
         name = "conjure",
         description = "CLI to generate Conjure IR from Conjure YML definitions.",
         mixinStandardHelpOptions = true,
-        subcommands = { ConjureCli.CompileCommand.class })
+        subcommands = {
+                ConjureCli.CompileCommand.class,
+                ConjureCli.WatchCommand.class,
+                ConjureCli.DaemonCommand.class})
 public final class ConjureCli implements Runnable {
+    private static final Logger log = LoggerFactory.getLogger(ConjureCli.class);
+
     public static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
             .registerModule(new Jdk8Module())
             .setSerializationInclusion(JsonInclude.Include.NON_ABSENT);
@@ -44,6 +63,57 @@ public final class ConjureCli implements Runnable {
         CommandLine.usage(this, System.out);
     }
 
+    /** Options of how the IR is written, shared by the commands which write IR. */
+    public static final class OutputOptions {
+        @CommandLine.Option(names = "--format",
+                description = "Encoding of the IR: JSON (default), or the binary SMILE or CBOR, which generators "
+                        + "decode faster.")
+        private IrEncoding format = IrEncoding.JSON;
+
+        @CommandLine.Option(names = "--compact",
+                description = "Write JSON IR without whitespace, which makes it much smaller. By default it is "
+                        + "indented.")
+        private boolean compact;
+
+        @CommandLine.Option(names = "--ir-version",
+                description = "Version of the IR file: 1 (default) spells out every type wherever it is used, 2 writes "
+                        + "each distinct type once in a table and references it by index, which generators read with "
+                        + "ConjureDefinitionReader.")
+        private int irVersion = Conjure.SUPPORTED_IR_VERSION;
+
+        @CommandLine.Option(names = "--gzip",
+                description = "Compress the IR with gzip.")
+        private boolean gzip;
+
+        CliConfiguration.Builder configure(CliConfiguration.Builder builder) {
+            Preconditions.checkArgument(irVersion == Conjure.SUPPORTED_IR_VERSION || irVersion == TypeTableIr.VERSION,
+                    "Unknown IR version %s, expected %s or %s", irVersion, Conjure.SUPPORTED_IR_VERSION,
+                    TypeTableIr.VERSION);
+            return builder.prettyPrint(!compact).irEncoding(format).irVersion(irVersion).gzip(gzip);
+        }
+    }
+
+    /** Options of how the definitions are compiled, shared by the commands which compile. */
+    public static final class CompilerOptions {
+        @CommandLine.Option(names = "--validation",
+                description = "How endpoints, types and errors are validated: SEQUENTIAL (default), PARALLEL or "
+                        + "PARALLEL_FAIL_FAST. All modes report the same first validation error, but the parallel "
+                        + "modes only validate once all definitions are converted, so they report a conversion error, "
+                        + "e.g. an unknown type, first. PARALLEL also reports all later validation errors.")
+        private ValidationMode validationMode = ValidationMode.SEQUENTIAL;
+
+        @CommandLine.Option(names = "--cache-dir",
+                description = "Directory in which parsed YML files are cached across compilations, keyed by their "
+                        + "content and the compiler version. Unchanged files are not parsed again.")
+        private String cacheDirectory;
+
+        CliConfiguration.Builder configure(CliConfiguration.Builder builder) {
+            return builder
+                    .validationMode(validationMode)
+                    .cacheDirectory(Optional.ofNullable(cacheDirectory).map(File::new));
+        }
+    }
+
     @CommandLine.Command(name = "compile",
             description = "Generate Conjure IR from Conjure YML definitions.",
             mixinStandardHelpOptions = true,
@@ -60,25 +130,141 @@ public final class ConjureCli implements Runnable {
                 index = "1")
         private String output;
 
+        @CommandLine.Option(names = "--incremental-state",
+                description = "File in which the state of this compilation is recorded, so that the next compilation "
+                        + "with the same file only recompiles changed YML files and the files which import them.")
+        private String incrementalStateFile;
+
+        @CommandLine.Option(names = "--daemon",
+                description = "Daemon file of a conjure daemon to compile with. Compiles in this process if no "
+                        + "daemon is running, or if --incremental-state is given.")
+        private String daemonFile;
+
+        @CommandLine.Mixin
+        private CompilerOptions compilerOptions = new CompilerOptions();
+
+        @CommandLine.Mixin
+        private OutputOptions outputOptions = new OutputOptions();
+
         @Override
         public void run() {
             CliConfiguration config = getConfiguration();
-            generate(config);
+            Optional<DaemonResponse> response = daemonFile != null && incrementalStateFile == null
+                    ? DaemonClient.compile(Paths.get(daemonFile), config)
+                    : Optional.empty();
+            if (!response.isPresent()) {
+                generate(config);
+            } else if (!response.get().success()) {
+                throw new RuntimeException("Conjure daemon failed to compile: " + response.get().message());
+            } else {
+                log.info("Conjure daemon: {}", response.get().message());
+            }
         }
 
         @VisibleForTesting
         static void generate(CliConfiguration config) {
-            ConjureDefinition definition = Conjure.parse(config.inputFiles());
-            try {
-                OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValue(config.outputIrFile(), definition);
+            generate(config, IncrementalCompiler::create);
+        }
+
+        @VisibleForTesting
+        static void generate(CliConfiguration config, Function<Path, IncrementalCompiler> incrementalCompilers) {
+            ParseCache parseCache = config.cacheDirectory()
+                    .map(directory -> ParseCache.inDirectory(directory.toPath()))
+                    .orElseGet(ParseCache::disabled);
+            ConjureDefinition definition = config.incrementalStateFile()
+                    .map(stateFile -> incrementalCompilers.apply(stateFile.toPath())
+                            .compile(config.inputFiles(), config.validationMode(), parseCache))
+                    .orElseGet(() -> Conjure.parse(config.inputFiles(), config.validationMode(), parseCache));
+            IrWriter.write(definition, config.outputIrFile(),
+                    config.irEncoding(), config.irVersion(), config.prettyPrint(), config.gzip());
+        }
+
+        @VisibleForTesting
+        CliConfiguration getConfiguration() {
+            return outputOptions.configure(compilerOptions.configure(CliConfiguration.builder(input, output)))
+                    .incrementalStateFile(Optional.ofNullable(incrementalStateFile).map(File::new))
+                    .build();
+        }
+    }
+
+    @CommandLine.Command(name = "watch",
+            description = "Generate Conjure IR from Conjure YML definitions, then regenerate it whenever the "
+                    + "definitions change until interrupted. Only changed files and the files which import them are "
+                    + "recompiled.",
+            mixinStandardHelpOptions = true,
+            usageHelpWidth = 120)
+    public static final class WatchCommand implements Runnable {
+        @CommandLine.Parameters(paramLabel = "<input>",
+                description = "Path to the input conjure YML definition file, or directory containing multiple such "
+                        + "files.",
+                index = "0")
+        private String input;
+
+        @CommandLine.Parameters(paramLabel = "<output>",
+                description = "Path to the output IR file.",
+                index = "1")
+        private String output;
+
+        @CommandLine.Option(names = "--debounce-millis",
+                description = "How long to wait for further changes after a change before recompiling, 200 by "
+                        + "default.")
+        private long debounceMillis = 200;
+
+        @CommandLine.Mixin
+        private CompilerOptions compilerOptions = new CompilerOptions();
+
+        @CommandLine.Mixin
+        private OutputOptions outputOptions = new OutputOptions();
+
+        @Override
+        public void run() {
+            try (ConjureWatcher watcher = ConjureWatcher.create(
+                    Paths.get(input), this::getConfiguration, getDebounce(), System.out::println)) {
+                watcher.run();
             } catch (IOException e) {
-                throw new RuntimeException("Failed to serialize IR file to " + config.outputIrFile(), e);
+                throw new RuntimeException("Failed to watch " + input, e);
             }
         }
 
         @VisibleForTesting
         CliConfiguration getConfiguration() {
-            return CliConfiguration.create(input, output);
+            return outputOptions.configure(compilerOptions.configure(CliConfiguration.builder(input, output)))
+                    .build();
+        }
+
+        @VisibleForTesting
+        Duration getDebounce() {
+            return Duration.ofMillis(debounceMillis);
+        }
+    }
+
+    @CommandLine.Command(name = "daemon",
+            description = "Serve compile requests of 'compile --daemon <daemon-file>' from a long-running process, "
+                    + "until idle for the idle timeout.",
+            mixinStandardHelpOptions = true,
+            usageHelpWidth = 120)
+    public static final class DaemonCommand implements Runnable {
+        @CommandLine.Parameters(paramLabel = "<daemon-file>",
+                description = "File in which the daemon records its address for clients.",
+                index = "0")
+        private String daemonFile;
+
+        @CommandLine.Option(names = "--idle-timeout-seconds",
+                description = "How long the daemon waits for requests before shutting down, 600 by default.")
+        private long idleTimeoutSeconds = 600;
+
+        @CommandLine.Option(names = "--threads",
+                description = "How many requests are compiled concurrently, the number of processors by default.")
+        private int threads = Runtime.getRuntime().availableProcessors();
+
+        @Override
+        public void run() {
+            try (ConjureDaemon daemon =
+                    ConjureDaemon.start(Paths.get(daemonFile), Duration.ofSeconds(idleTimeoutSeconds), threads)) {
+                daemon.run();
+            } catch (IOException e) {
+                throw new RuntimeException("Failed to start the conjure daemon", e);
+            }
         }
     }
 }
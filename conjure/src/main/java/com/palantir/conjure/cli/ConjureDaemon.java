@@ -0,0 +1,251 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Stopwatch;
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.io.BaseEncoding;
+import com.google.common.util.concurrent.Striped;
+import com.palantir.conjure.defs.IncrementalCompiler;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A long-running compiler process which serves {@link DaemonRequest}s on a loopback socket, so that repeated compiles
+ * don't pay for JVM startup and run on warm code. The daemon keeps an in-memory {@link IncrementalCompiler} per output
+ * file, so that compiling the same definitions again only recompiles the files which changed, and a {@link ParseCache}
+ * per cache directory.
+ *
+ * <p>Requests are served concurrently, except that requests for the same output file are serialized. The daemon
+ * records its {@link DaemonAddress} in the daemon file, readable by its owner only, and deletes it when it shuts down
+ * after being idle for the idle timeout.
+ */
+final class ConjureDaemon implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConjureDaemon.class);
+
+    private static final Duration REQUEST_READ_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration MAX_ACCEPT_TIMEOUT = Duration.ofSeconds(1);
+
+    private final ServerSocket serverSocket;
+    private final Path daemonFile;
+    private final DaemonAddress address;
+    private final Duration idleTimeout;
+    private final ExecutorService executor;
+    private final Cache<String, IncrementalCompiler> compilers = CacheBuilder.newBuilder().maximumSize(256).build();
+    private final Striped<Lock> outputLocks = Striped.lock(64);
+    private final ConcurrentMap<Optional<String>, ParseCache> parseCaches = new ConcurrentHashMap<>();
+    private final AtomicInteger activeRequests = new AtomicInteger();
+    private final AtomicLong lastActivityNanos = new AtomicLong(System.nanoTime());
+
+    private ConjureDaemon(
+            ServerSocket serverSocket, Path daemonFile, DaemonAddress address, Duration idleTimeout, int threads) {
+        this.serverSocket = serverSocket;
+        this.daemonFile = daemonFile;
+        this.address = address;
+        this.idleTimeout = idleTimeout;
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    /** Starts listening on an ephemeral loopback port and records the address in the given daemon file. */
+    static ConjureDaemon start(Path daemonFile, Duration idleTimeout, int threads) throws IOException {
+        byte[] token = new byte[32];
+        new SecureRandom().nextBytes(token);
+        ServerSocket serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        try {
+            serverSocket.setSoTimeout(Math.toIntExact(
+                    (idleTimeout.compareTo(MAX_ACCEPT_TIMEOUT) < 0 ? idleTimeout : MAX_ACCEPT_TIMEOUT).toMillis()));
+            DaemonAddress address =
+                    DaemonAddress.of(serverSocket.getLocalPort(), BaseEncoding.base16().lowerCase().encode(token));
+            writeDaemonFile(daemonFile, address);
+            log.info("Listening on port {}, see {}", address.port(), daemonFile);
+            return new ConjureDaemon(serverSocket, daemonFile, address, idleTimeout, threads);
+        } catch (IOException | RuntimeException e) {
+            serverSocket.close();
+            throw e;
+        }
+    }
+
+    DaemonAddress address() {
+        return address;
+    }
+
+    /** Serves requests until the daemon has been idle for the idle timeout or is closed. */
+    void run() {
+        try {
+            while (!isIdle()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                activeRequests.incrementAndGet();
+                executor.execute(() -> {
+                    try {
+                        serve(socket);
+                    } finally {
+                        lastActivityNanos.set(System.nanoTime());
+                        activeRequests.decrementAndGet();
+                    }
+                });
+            }
+            log.info("Shutting down after being idle for {}", idleTimeout);
+        } catch (SocketException e) {
+            // closed, stop serving
+        } catch (IOException e) {
+            log.warn("Failed to accept connections, shutting down", e);
+        } finally {
+            shutdown();
+        }
+    }
+
+    private boolean isIdle() {
+        return activeRequests.get() == 0 && System.nanoTime() - lastActivityNanos.get() >= idleTimeout.toNanos();
+    }
+
+    private void serve(Socket socket) {
+        try (Socket closedSocket = socket;
+                BufferedReader reader = new BufferedReader(
+                        new InputStreamReader(closedSocket.getInputStream(), StandardCharsets.UTF_8));
+                Writer writer = new BufferedWriter(
+                        new OutputStreamWriter(closedSocket.getOutputStream(), StandardCharsets.UTF_8))) {
+            closedSocket.setSoTimeout(Math.toIntExact(REQUEST_READ_TIMEOUT.toMillis()));
+            String line = reader.readLine();
+            if (line == null) {
+                return;
+            }
+            DaemonResponse response = handle(ConjureCli.OBJECT_MAPPER.readValue(line, DaemonRequest.class));
+            writer.write(ConjureCli.OBJECT_MAPPER.writeValueAsString(response));
+            writer.write('\n');
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to serve a request", e);
+        }
+    }
+
+    @VisibleForTesting
+    DaemonResponse handle(DaemonRequest request) {
+        if (!MessageDigest.isEqual(request.token().getBytes(StandardCharsets.UTF_8),
+                address.token().getBytes(StandardCharsets.UTF_8))) {
+            return DaemonResponse.failure("Invalid daemon token");
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Lock lock = outputLocks.get(request.outputIrFile());
+        lock.lock();
+        try {
+            List<File> inputFiles = request.inputFiles().stream().map(File::new).collect(Collectors.toList());
+            ConjureDefinition definition = compilers.asMap()
+                    .computeIfAbsent(request.outputIrFile(), _outputIrFile -> IncrementalCompiler.inMemory())
+                    .compile(inputFiles, request.validationMode(), parseCache(request.cacheDirectory()));
+            IrWriter.write(definition, new File(request.outputIrFile()),
+                    request.irEncoding(), request.irVersion(), request.prettyPrint(), request.gzip());
+            return DaemonResponse.success(String.format(
+                    "Compiled %d files in %d ms", inputFiles.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+        } catch (RuntimeException e) {
+            return DaemonResponse.failure(Throwables.getStackTraceAsString(e));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ParseCache parseCache(Optional<String> cacheDirectory) {
+        return parseCaches.computeIfAbsent(cacheDirectory, directory -> directory
+                .map(path -> ParseCache.inDirectory(new File(path).toPath()))
+                .orElseGet(ParseCache::disabled));
+    }
+
+    private void shutdown() {
+        executor.shutdown();
+        try {
+            serverSocket.close();
+            if (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Requests still running after shutting down");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.warn("Failed to close the server socket", e);
+        }
+        deleteDaemonFile();
+    }
+
+    /** Deletes the daemon file unless another daemon replaced it since. */
+    private void deleteDaemonFile() {
+        try {
+            if (Files.isRegularFile(daemonFile)
+                    && ConjureCli.OBJECT_MAPPER.readValue(daemonFile.toFile(), DaemonAddress.class).equals(address)) {
+                Files.delete(daemonFile);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to delete the daemon file {}", daemonFile, e);
+        }
+    }
+
+    private static void writeDaemonFile(Path daemonFile, DaemonAddress address) throws IOException {
+        Path directory = daemonFile.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        // temporary files are only accessible to their owner, which keeps the token private
+        Path temporary = Files.createTempFile(directory, daemonFile.getFileName().toString(), ".tmp");
+        try {
+            ConjureCli.OBJECT_MAPPER.writeValue(temporary.toFile(), address);
+            Files.move(temporary, daemonFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+    }
+}
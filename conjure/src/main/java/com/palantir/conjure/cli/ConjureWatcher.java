@@ -0,0 +1,215 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.base.Stopwatch;
+import com.palantir.conjure.defs.IncrementalCompiler;
+import com.palantir.conjure.parser.ParseCache;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Recompiles Conjure YML definitions whenever the input file, or the YML files under the input directory, change until
+ * closed. Bursts of events, e.g. an editor saving several files, are debounced into a single compile, and the compiler
+ * keeps its parsed and converted files in memory between compiles, so only the changed files and the files importing
+ * them are recompiled.
+ *
+ * <p>Each compile is reported with its latency and the number of changed files; a failed compile is reported and
+ * leaves the previous output in place.
+ */
+final class ConjureWatcher implements Closeable {
+
+    private final Optional<Path> inputFile;
+    private final Path outputIrFile;
+    private final Supplier<CliConfiguration> configuration;
+    private final ParseCache parseCache;
+    private final Duration debounce;
+    private final Consumer<String> reporter;
+    private final WatchService watchService;
+    private final IncrementalCompiler compiler = IncrementalCompiler.inMemory();
+
+    private ConjureWatcher(
+            Path root,
+            Optional<Path> inputFile,
+            CliConfiguration initialConfiguration,
+            Supplier<CliConfiguration> configuration,
+            Duration debounce,
+            Consumer<String> reporter) throws IOException {
+        this.inputFile = inputFile;
+        this.outputIrFile = initialConfiguration.outputIrFile().toPath().toAbsolutePath().normalize();
+        this.configuration = configuration;
+        this.parseCache = initialConfiguration.cacheDirectory()
+                .map(directory -> ParseCache.inDirectory(directory.toPath()))
+                .orElseGet(ParseCache::disabled);
+        this.debounce = debounce;
+        this.reporter = reporter;
+        this.watchService = root.getFileSystem().newWatchService();
+    }
+
+    /**
+     * Returns a watcher of the given input, which is either a directory whose whole tree is watched or a single file
+     * for which only its directory, but not its subdirectories, is watched. The configuration is resolved again before
+     * each compile, so that added and removed files are picked up.
+     */
+    static ConjureWatcher create(
+            Path input,
+            Supplier<CliConfiguration> configuration,
+            Duration debounce,
+            Consumer<String> reporter) throws IOException {
+        Path absoluteInput = input.toAbsolutePath().normalize();
+        boolean isDirectory = Files.isDirectory(absoluteInput);
+        Path root = isDirectory ? absoluteInput : absoluteInput.getParent();
+        Optional<Path> inputFile = isDirectory ? Optional.empty() : Optional.of(absoluteInput);
+        ConjureWatcher watcher =
+                new ConjureWatcher(root, inputFile, configuration.get(), configuration, debounce, reporter);
+        try {
+            if (isDirectory) {
+                watcher.registerTree(root);
+            } else {
+                watcher.register(root);
+            }
+        } catch (IOException | RuntimeException e) {
+            watcher.close();
+            throw e;
+        }
+        return watcher;
+    }
+
+    /** Compiles once, then recompiles after each burst of changes until this watcher is closed or interrupted. */
+    void run() {
+        compile("Compiled all files");
+        try {
+            while (true) {
+                Set<Path> changed = new LinkedHashSet<>();
+                boolean overflowed = collect(watchService.take(), changed);
+                WatchKey key;
+                while ((key = watchService.poll(debounce.toMillis(), TimeUnit.MILLISECONDS)) != null) {
+                    overflowed |= collect(key, changed);
+                }
+                if (overflowed) {
+                    // events were lost, the compiler finds the changed files by their contents anyway
+                    compile("Compiled after lost file events");
+                } else if (!changed.isEmpty()) {
+                    compile(String.format("Compiled %d changed %s", changed.size(),
+                            changed.size() == 1 ? "file" : "files"));
+                }
+            }
+        } catch (ClosedWatchServiceException e) {
+            // closed, stop watching
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void compile(String description) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            CliConfiguration config = configuration.get();
+            ConjureDefinition definition = compiler.compile(config.inputFiles(), config.validationMode(), parseCache);
+            IrWriter.write(definition, config.outputIrFile(),
+                    config.irEncoding(), config.irVersion(), config.prettyPrint(), config.gzip());
+            reporter.accept(String.format("%s in %d ms", description, stopwatch.elapsed(TimeUnit.MILLISECONDS)));
+        } catch (RuntimeException e) {
+            reporter.accept(String.format("Compilation failed after %d ms: %s",
+                    stopwatch.elapsed(TimeUnit.MILLISECONDS), e));
+        }
+    }
+
+    /**
+     * Adds the input files changed according to the events of the given key, registering any new directories, and
+     * returns whether events were lost.
+     */
+    private boolean collect(WatchKey key, Set<Path> changed) {
+        Path directory = (Path) key.watchable();
+        boolean overflowed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                overflowed = true;
+                continue;
+            }
+            Path path = directory.resolve((Path) event.context());
+            if (!inputFile.isPresent()
+                    && event.kind() == StandardWatchEventKinds.ENTRY_CREATE
+                    && Files.isDirectory(path)) {
+                try {
+                    registerTree(path);
+                } catch (IOException e) {
+                    reporter.accept("Failed to watch new directory " + path + ": " + e);
+                }
+            }
+            if (isInput(path, event.kind())) {
+                changed.add(path);
+            }
+        }
+        key.reset();
+        return overflowed;
+    }
+
+    /**
+     * Whether the given path is the input file, or a YML file in the input directory, which still exists unless the
+     * event deleted it. Directories, the output and other files, such as the swap files of editors, are ignored.
+     */
+    private boolean isInput(Path path, WatchEvent.Kind<?> kind) {
+        if (inputFile.isPresent()) {
+            return path.equals(inputFile.get());
+        }
+        String name = path.getFileName().toString();
+        return !path.equals(outputIrFile)
+                && (name.endsWith(".yml") || name.endsWith(".yaml"))
+                && (kind == StandardWatchEventKinds.ENTRY_DELETE || Files.isRegularFile(path));
+    }
+
+    private void registerTree(Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes _attrs) throws IOException {
+                register(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void register(Path directory) throws IOException {
+        directory.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+/**
+ * Where a {@link ConjureDaemon} listens, as recorded in its daemon file. Only processes which can read the daemon file
+ * know the token, and the daemon rejects requests without it.
+ */
+@JsonDeserialize(as = ImmutableDaemonAddress.class)
+@JsonSerialize(as = ImmutableDaemonAddress.class)
+@Value.Immutable
+interface DaemonAddress {
+
+    /** The port on the loopback interface. */
+    int port();
+
+    String token();
+
+    static DaemonAddress of(int port, String token) {
+        return ImmutableDaemonAddress.builder().port(port).token(token).build();
+    }
+}
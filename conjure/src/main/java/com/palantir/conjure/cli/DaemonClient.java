@@ -0,0 +1,101 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.ConnectException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/** Sends compile requests to the {@link ConjureDaemon} recorded in a daemon file. */
+final class DaemonClient {
+
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(1);
+    // how long a compile may take before the daemon is considered hung
+    private static final Duration RESPONSE_TIMEOUT = Duration.ofMinutes(10);
+
+    private DaemonClient() {}
+
+    /**
+     * Compiles with the daemon recorded in the given file and returns its response, or returns empty if there is no
+     * such daemon, e.g. because it shut down after being idle, in which case the caller should compile itself.
+     */
+    static Optional<DaemonResponse> compile(Path daemonFile, CliConfiguration config) {
+        return compile(daemonFile, config, RESPONSE_TIMEOUT);
+    }
+
+    @VisibleForTesting
+    static Optional<DaemonResponse> compile(Path daemonFile, CliConfiguration config, Duration responseTimeout) {
+        Optional<DaemonAddress> address = readDaemonFile(daemonFile);
+        if (!address.isPresent()) {
+            return Optional.empty();
+        }
+
+        try (Socket socket = new Socket()) {
+            try {
+                socket.connect(
+                        new InetSocketAddress(InetAddress.getLoopbackAddress(), address.get().port()),
+                        Math.toIntExact(CONNECT_TIMEOUT.toMillis()));
+            } catch (ConnectException e) {
+                return Optional.empty();
+            }
+            socket.setSoTimeout(Math.toIntExact(responseTimeout.toMillis()));
+            Writer writer =
+                    new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+            writer.write(ConjureCli.OBJECT_MAPPER.writeValueAsString(DaemonRequest.of(address.get().token(), config)));
+            writer.write('\n');
+            writer.flush();
+
+            String line = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8))
+                    .readLine();
+            if (line == null) {
+                throw new IllegalStateException("Conjure daemon closed the connection without responding");
+            }
+            return Optional.of(ConjureCli.OBJECT_MAPPER.readValue(line, DaemonResponse.class));
+        } catch (SocketTimeoutException e) {
+            throw new RuntimeException(String.format(
+                    "Conjure daemon recorded in %s did not respond within %s", daemonFile, responseTimeout), e);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to compile with the conjure daemon recorded in " + daemonFile, e);
+        }
+    }
+
+    private static Optional<DaemonAddress> readDaemonFile(Path daemonFile) {
+        if (!Files.isRegularFile(daemonFile)) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(ConjureCli.OBJECT_MAPPER.readValue(daemonFile.toFile(), DaemonAddress.class));
+        } catch (IOException e) {
+            // e.g. written by an incompatible version, compile without the daemon
+            return Optional.empty();
+        }
+    }
+}
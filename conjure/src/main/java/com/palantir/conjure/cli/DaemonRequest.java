@@ -0,0 +1,84 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.ir.IrEncoding;
+import java.io.File;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import org.immutables.value.Value;
+
+/** A request to compile, sent by a client to a {@link ConjureDaemon} as a single line of JSON. */
+@JsonDeserialize(as = ImmutableDaemonRequest.class)
+@JsonSerialize(as = ImmutableDaemonRequest.class)
+@Value.Immutable
+// JDK collections, which Jackson deserializes without the Guava module
+@Value.Style(jdkOnly = true)
+interface DaemonRequest {
+
+    String token();
+
+    /** Absolute paths of the input files, already resolved by the client. */
+    List<String> inputFiles();
+
+    /** Absolute path of the output IR file. */
+    String outputIrFile();
+
+    ValidationMode validationMode();
+
+    /** Absolute path of the parse cache directory, if any. */
+    Optional<String> cacheDirectory();
+
+    @Value.Default
+    default boolean prettyPrint() {
+        return true;
+    }
+
+    @Value.Default
+    default IrEncoding irEncoding() {
+        return IrEncoding.JSON;
+    }
+
+    @Value.Default
+    default int irVersion() {
+        return Conjure.SUPPORTED_IR_VERSION;
+    }
+
+    @Value.Default
+    default boolean gzip() {
+        return false;
+    }
+
+    static DaemonRequest of(String token, CliConfiguration config) {
+        return ImmutableDaemonRequest.builder()
+                .token(token)
+                .inputFiles(config.inputFiles().stream().map(File::getAbsolutePath).collect(Collectors.toList()))
+                .outputIrFile(config.outputIrFile().getAbsolutePath())
+                .validationMode(config.validationMode())
+                .cacheDirectory(config.cacheDirectory().map(File::getAbsolutePath))
+                .prettyPrint(config.prettyPrint())
+                .irEncoding(config.irEncoding())
+                .irVersion(config.irVersion())
+                .gzip(config.gzip())
+                .build();
+    }
+}
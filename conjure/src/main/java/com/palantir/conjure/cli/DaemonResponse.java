@@ -0,0 +1,41 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import org.immutables.value.Value;
+
+/** The outcome of a {@link DaemonRequest}, sent back by the {@link ConjureDaemon} as a single line of JSON. */
+@JsonDeserialize(as = ImmutableDaemonResponse.class)
+@JsonSerialize(as = ImmutableDaemonResponse.class)
+@Value.Immutable
+interface DaemonResponse {
+
+    boolean success();
+
+    /** A summary of the compile if successful, the error otherwise. */
+    String message();
+
+    static DaemonResponse success(String message) {
+        return ImmutableDaemonResponse.builder().success(true).message(message).build();
+    }
+
+    static DaemonResponse failure(String message) {
+        return ImmutableDaemonResponse.builder().success(false).message(message).build();
+    }
+}
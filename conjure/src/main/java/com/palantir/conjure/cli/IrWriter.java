@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.google.common.collect.Maps;
+import com.palantir.conjure.ir.IrEncoding;
+import com.palantir.conjure.ir.TypeTableIr;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the IR of a {@link ConjureDefinition} through a single {@link JsonGenerator}, one error, type and service at a
+ * time, so the encoded definition is never built up in memory.
+ *
+ * <p>The pretty JSON output is byte-identical to that of {@code writerWithDefaultPrettyPrinter()} of
+ * {@link ConjureCli#OBJECT_MAPPER}. The compact output is the same JSON without any whitespace, and the binary
+ * encodings ignore pretty printing. Any encoding may be gzip-compressed and written with a {@link TypeTableIr type
+ * table}; {@link com.palantir.conjure.ir.ConjureDefinitionReader} reads all of them.
+ */
+final class IrWriter {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final Map<IrEncoding, ObjectMapper> MAPPERS = Arrays.stream(IrEncoding.values())
+            .collect(Maps.toImmutableEnumMap(Function.identity(), IrWriter::mapper));
+    private static final Map<IrEncoding, ObjectMapper> TYPE_TABLE_MAPPERS = Arrays.stream(IrEncoding.values())
+            .collect(Maps.<IrEncoding, IrEncoding, ObjectMapper>toImmutableEnumMap(
+                    Function.identity(), encoding -> mapper(encoding).registerModule(TypeTableIr.module())));
+
+    private IrWriter() {}
+
+    static void write(
+            ConjureDefinition definition, File file, IrEncoding encoding, int irVersion, boolean prettyPrint,
+            boolean gzip) {
+        boolean typeTable = irVersion == TypeTableIr.VERSION;
+        ObjectMapper mapper = (typeTable ? TYPE_TABLE_MAPPERS : MAPPERS).get(encoding);
+        try (OutputStream fileOutput = new FileOutputStream(file);
+                OutputStream output = gzip ? new GZIPOutputStream(fileOutput, GZIP_BUFFER_SIZE) : fileOutput;
+                JsonGenerator generator = mapper.getFactory().createGenerator(output, JsonEncoding.UTF8)) {
+            if (prettyPrint && encoding == IrEncoding.JSON) {
+                generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            }
+            if (typeTable) {
+                TypeTableIr.write(definition, generator, mapper);
+            } else {
+                write(definition, generator, mapper);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to serialize IR file to " + file, e);
+        }
+    }
+
+    /** Writes the fields of the definition in the order of its Jackson serialization. */
+    private static void write(ConjureDefinition definition, JsonGenerator generator, ObjectMapper mapper)
+            throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("version", definition.getVersion());
+        writeArray(generator, mapper, "errors", definition.getErrors());
+        writeArray(generator, mapper, "types", definition.getTypes());
+        writeArray(generator, mapper, "services", definition.getServices());
+        generator.writeEndObject();
+    }
+
+    private static void writeArray(JsonGenerator generator, ObjectMapper mapper, String fieldName, List<?> values)
+            throws IOException {
+        generator.writeFieldName(fieldName);
+        generator.writeStartArray();
+        for (Object value : values) {
+            mapper.writeValue(generator, value);
+        }
+        generator.writeEndArray();
+    }
+
+    /** Returns a mapper configured as {@link ConjureCli#OBJECT_MAPPER}, for the given encoding. */
+    private static ObjectMapper mapper(IrEncoding encoding) {
+        return new ObjectMapper(encoding.newFactory())
+                .registerModule(new Jdk8Module())
+                .setSerializationInclusion(JsonInclude.Include.NON_ABSENT)
+                // flushing after every definition would cost a write per definition
+                .disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+}
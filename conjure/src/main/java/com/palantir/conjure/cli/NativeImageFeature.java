@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.reflect.ClassPath;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import org.graalvm.nativeimage.hosted.Feature;
+import org.graalvm.nativeimage.hosted.RuntimeReflection;
+
+/**
+ * Registers the classes which Jackson and picocli reflect on for a GraalVM native image of the CLI: the parser model
+ * read from YML, the spec classes of the IR, the JSON state of the incremental compiler and daemon, and the commands.
+ * The classes are found by scanning their packages while the image is built, so that no list of classes can go stale.
+ *
+ * <p>Enabled by {@code META-INF/native-image/com.palantir.conjure/conjure/native-image.properties}; only loaded by the
+ * native image builder.
+ */
+public final class NativeImageFeature implements Feature {
+
+    private static final List<String> REFLECTIVE_PACKAGES = ImmutableList.of(
+            "com.palantir.conjure.parser",
+            "com.palantir.conjure.spec",
+            "com.palantir.conjure.defs",
+            "com.palantir.conjure.cli");
+
+    @Override
+    public void beforeAnalysis(BeforeAnalysisAccess access) {
+        ClassPath classPath;
+        try {
+            // the feature is loaded from the class path of the image, so its loader sees all application classes
+            classPath = ClassPath.from(NativeImageFeature.class.getClassLoader());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to scan the class path of the image", e);
+        }
+        for (String packageName : REFLECTIVE_PACKAGES) {
+            for (ClassPath.ClassInfo classInfo : classPath.getTopLevelClassesRecursive(packageName)) {
+                Class<?> clazz = access.findClassByName(classInfo.getName());
+                if (clazz != null && clazz != NativeImageFeature.class) {
+                    register(clazz);
+                }
+            }
+        }
+    }
+
+    /** Registers the given class and its nested classes, e.g. the builders and JSON delegates of Immutables. */
+    private static void register(Class<?> clazz) {
+        RuntimeReflection.register(clazz);
+        RuntimeReflection.register(clazz.getDeclaredConstructors());
+        RuntimeReflection.register(clazz.getDeclaredMethods());
+        RuntimeReflection.register(clazz.getDeclaredFields());
+        for (Class<?> nested : clazz.getDeclaredClasses()) {
+            register(nested);
+        }
+    }
+}
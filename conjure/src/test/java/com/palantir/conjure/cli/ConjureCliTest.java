@@ -20,8 +20,20 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.defs.IncrementalCompiler;
+import com.palantir.conjure.defs.validator.ValidationMode;
+import com.palantir.conjure.ir.IrEncoding;
+import com.palantir.conjure.ir.TypeTableIr;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.visitor.TypeDefinitionVisitor;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Function;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -34,6 +46,10 @@ public final class ConjureCliTest {
     @Rule
     public TemporaryFolder folder = new TemporaryFolder();
 
+    // the version of the compiler is unknown when testing, which disables incremental compilation
+    private static final Function<Path, IncrementalCompiler> INCREMENTAL_COMPILERS =
+            stateFile -> IncrementalCompiler.create(stateFile, "1.0.0");
+
     private File inputFile;
     private File outputFile;
 
@@ -55,6 +71,110 @@ public final class ConjureCliTest {
         assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
     }
 
+    @Test
+    public void parsesValidationMode() {
+        String[] args = {
+                "compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--validation", "PARALLEL"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .validationMode(ValidationMode.PARALLEL)
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void parsesCacheDirectory() {
+        String[] args = {
+                "compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(),
+                "--cache-dir", folder.getRoot().getAbsolutePath()};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .cacheDirectory(folder.getRoot())
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void parsesWatchCommand() {
+        String[] args = {
+                "watch", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--debounce-millis", "50"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .build();
+        ConjureCli.WatchCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+        assertThat(cmd.getDebounce()).isEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    public void compilesInProcessWithoutDaemon() {
+        String[] args = {
+                "compile", new File("src/test/resources/test-service.yml").getAbsolutePath(),
+                outputFile.getAbsolutePath(), "--daemon", new File(folder.getRoot(), "daemon.json").getAbsolutePath()};
+        CommandLine.run(new ConjureCli(), args);
+        assertThat(outputFile).isFile();
+    }
+
+    @Test
+    public void parsesCompactOutput() {
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--compact"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .prettyPrint(false)
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void parsesFormatAndGzip() {
+        String[] args = {
+                "compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--format", "SMILE", "--gzip"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .irEncoding(IrEncoding.SMILE)
+                .gzip(true)
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void throwsWhenFormatIsUnknown() {
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--format", "XML"};
+        assertThatThrownBy(() -> CommandLine.populateCommand(new ConjureCli(), args))
+                .isInstanceOf(PicocliException.class)
+                .hasMessageContaining("expected one of [JSON, SMILE, CBOR]");
+    }
+
+    @Test
+    public void parsesIrVersion() {
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--ir-version", "2"};
+        CliConfiguration expectedConfiguration = CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(inputFile))
+                .outputIrFile(outputFile)
+                .irVersion(TypeTableIr.VERSION)
+                .build();
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration()).isEqualTo(expectedConfiguration);
+    }
+
+    @Test
+    public void throwsWhenIrVersionIsUnknown() {
+        String[] args = {"compile", inputFile.getAbsolutePath(), outputFile.getAbsolutePath(), "--ir-version", "3"};
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThatThrownBy(cmd::getConfiguration)
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unknown IR version 3, expected 1 or 2");
+    }
+
     @Test
     public void discoversFilesInDirectory() {
         String[] args = {"compile", folder.getRoot().getAbsolutePath(), outputFile.getAbsolutePath()};
@@ -109,6 +229,35 @@ public final class ConjureCliTest {
         assertThat(outputFile.isFile()).isTrue();
     }
 
+    @Test
+    public void compilesIncrementallyWithState() throws IOException {
+        File inputs = folder.newFolder("incremental");
+        File alpha = write(new File(inputs, "alpha.yml"), object("Alpha"));
+        File beta = write(new File(inputs, "beta.yml"), object("Beta"));
+        File stateFile = new File(folder.getRoot(), "state.json");
+        String[] args = {
+                "compile", inputs.getAbsolutePath(), outputFile.getAbsolutePath(),
+                "--incremental-state", stateFile.getAbsolutePath()};
+        ConjureCli.CompileCommand cmd = new CommandLine(new ConjureCli()).parse(args).get(1).getCommand();
+        assertThat(cmd.getConfiguration().incrementalStateFile()).contains(stateFile);
+
+        ConjureCli.CompileCommand.generate(cmd.getConfiguration(), INCREMENTAL_COMPILERS);
+        assertThat(stateFile).isFile();
+        assertThat(readOutput()).isEqualTo(Conjure.parse(ImmutableList.of(alpha, beta)));
+
+        write(beta, object("Gamma"));
+        ConjureCli.CompileCommand.generate(cmd.getConfiguration(), INCREMENTAL_COMPILERS);
+        assertThat(readOutput()).isEqualTo(Conjure.parse(ImmutableList.of(alpha, beta)));
+
+        // an unchanged file is taken from the saved state rather than compiled again
+        String state = new String(Files.readAllBytes(stateFile.toPath()), StandardCharsets.UTF_8);
+        write(stateFile, state.replace("\"Alpha\"", "\"Recorded\""));
+        ConjureCli.CompileCommand.generate(cmd.getConfiguration(), INCREMENTAL_COMPILERS);
+        assertThat(readOutput().getTypes())
+                .extracting(type -> type.accept(TypeDefinitionVisitor.TYPE_NAME).getName())
+                .containsExactlyInAnyOrder("Recorded", "Gamma");
+    }
+
     @Test
     public void throwsWhenInvalidDefinition() throws Exception {
         CliConfiguration configuration = CliConfiguration.builder()
@@ -119,4 +268,24 @@ public final class ConjureCliTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("MismatchedInputException");
     }
+
+    private ConjureDefinition readOutput() throws IOException {
+        return ConjureCli.OBJECT_MAPPER.readValue(outputFile, ConjureDefinition.class);
+    }
+
+    private static File write(File file, String content) throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    private static String object(String name) {
+        return ""
+                + "types:\n"
+                + "  definitions:\n"
+                + "    default-package: com.palantir.incremental\n"
+                + "    objects:\n"
+                + "      " + name + ":\n"
+                + "        fields:\n"
+                + "          value: string\n";
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class ConjureDaemonTest {
+
+    private static final File TEST_SERVICE = new File("src/test/resources/test-service.yml");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Path daemonFile;
+    private ConjureDaemon daemon;
+    private Thread thread;
+
+    @Before
+    public void before() throws IOException {
+        daemonFile = folder.getRoot().toPath().resolve("daemon/conjure.json");
+        daemon = ConjureDaemon.start(daemonFile, Duration.ofMinutes(1), 4);
+        thread = new Thread(daemon::run);
+        thread.start();
+    }
+
+    @After
+    public void after() throws Exception {
+        daemon.close();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertThat(thread.isAlive()).isFalse();
+    }
+
+    @Test
+    public void compilesConcurrentRequests() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<DaemonResponse>>> responses = IntStream.range(0, 16)
+                    .mapToObj(i -> executor.submit(() -> DaemonClient.compile(daemonFile, config(TEST_SERVICE, i))))
+                    .collect(Collectors.toList());
+            for (Future<Optional<DaemonResponse>> response : responses) {
+                assertThat(response.get().get().success()).describedAs(response.get().get().message()).isTrue();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        ConjureDefinition expected = Conjure.parse(ImmutableList.of(TEST_SERVICE));
+        for (int i = 0; i < 16; i++) {
+            // requests with the same output are serialized, so each output is complete
+            assertThat(ConjureCli.OBJECT_MAPPER.readValue(output(i % 4), ConjureDefinition.class)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void reportsCompileErrors() throws IOException {
+        File empty = folder.newFile("empty.yml");
+
+        DaemonResponse response = DaemonClient.compile(daemonFile, config(empty, 0)).get();
+        assertThat(response.success()).isFalse();
+        assertThat(response.message()).contains("MismatchedInputException");
+    }
+
+    @Test
+    public void rejectsRequestsWithoutToken() {
+        DaemonResponse response = daemon.handle(DaemonRequest.of("not-the-token", config(TEST_SERVICE, 0)));
+        assertThat(response).isEqualTo(DaemonResponse.failure("Invalid daemon token"));
+    }
+
+    @Test
+    public void shutsDownWhenIdle() throws Exception {
+        Path idleDaemonFile = folder.getRoot().toPath().resolve("idle.json");
+        ConjureDaemon idleDaemon = ConjureDaemon.start(idleDaemonFile, Duration.ofMillis(100), 1);
+        assertThat(idleDaemonFile).exists();
+
+        idleDaemon.run();
+        assertThat(idleDaemonFile).doesNotExist();
+        assertThat(DaemonClient.compile(idleDaemonFile, config(TEST_SERVICE, 0))).isEmpty();
+    }
+
+    private CliConfiguration config(File input, int output) {
+        return CliConfiguration.builder()
+                .inputFiles(ImmutableList.of(input))
+                .outputIrFile(output(output % 4))
+                .build();
+    }
+
+    private File output(int index) {
+        return new File(folder.getRoot(), "conjureIr-" + index + ".json");
+    }
+}
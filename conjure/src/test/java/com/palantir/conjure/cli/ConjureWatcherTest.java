@@ -0,0 +1,149 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class ConjureWatcherTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final BlockingQueue<String> reports = new LinkedBlockingQueue<>();
+    private File inputs;
+    private File outputFile;
+    private ConjureWatcher watcher;
+    private Thread thread;
+
+    @Before
+    public void before() throws IOException {
+        inputs = folder.newFolder("inputs");
+        write("a.yml", object("Alpha"));
+        outputFile = new File(folder.getRoot(), "conjureIr.json");
+    }
+
+    @After
+    public void after() throws Exception {
+        watcher.close();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+        assertThat(thread.isAlive()).isFalse();
+    }
+
+    @Test
+    public void recompilesChangedFiles() throws Exception {
+        watch(inputs);
+        assertThat(nextReport()).startsWith("Compiled all files in ");
+        assertThat(readOutput()).isEqualTo(Conjure.parse(ImmutableList.of(new File(inputs, "a.yml"))));
+
+        write("b.yml", object("Beta"));
+        assertThat(nextReport()).startsWith("Compiled 1 changed file in ");
+        assertThat(readOutput()).isEqualTo(Conjure.parse(
+                ImmutableList.of(new File(inputs, "a.yml"), new File(inputs, "b.yml"))));
+    }
+
+    @Test
+    public void ignoresChangesToOtherFilesAndDirectories() throws Exception {
+        watch(inputs);
+        assertThat(nextReport()).startsWith("Compiled all files in ");
+
+        // the input directory is compiled whole, so the other file must be valid too
+        write("a.yml.bak", object("Backup"));
+        assertThat(new File(inputs, "directory").mkdir()).isTrue();
+        assertThat(reports.poll(1, TimeUnit.SECONDS)).isNull();
+
+        write("directory/b.yml", object("Beta"));
+        assertThat(nextReport()).startsWith("Compiled 1 changed file in ");
+    }
+
+    @Test
+    public void watchesOnlyTheInputFile() throws Exception {
+        watch(new File(inputs, "a.yml"));
+        assertThat(nextReport()).startsWith("Compiled all files in ");
+
+        write("b.yml", object("Beta"));
+        assertThat(reports.poll(1, TimeUnit.SECONDS)).isNull();
+
+        write("a.yml", object("Gamma"));
+        assertThat(nextReport()).startsWith("Compiled 1 changed file in ");
+        assertThat(readOutput()).isEqualTo(Conjure.parse(ImmutableList.of(new File(inputs, "a.yml"))));
+    }
+
+    @Test
+    public void reportsFailuresAndKeepsWatching() throws Exception {
+        watch(inputs);
+        assertThat(nextReport()).startsWith("Compiled all files in ");
+
+        write("a.yml", "types: [");
+        assertThat(nextReport()).startsWith("Compilation failed after ");
+
+        write("a.yml", object("Fixed"));
+        assertThat(nextReport()).startsWith("Compiled 1 changed file in ");
+        assertThat(readOutput().getTypes()).hasSize(1);
+    }
+
+    private void watch(File input) throws IOException {
+        watcher = ConjureWatcher.create(
+                input.toPath(),
+                () -> CliConfiguration.builder(input.getPath(), outputFile.getPath()).build(),
+                Duration.ofMillis(50),
+                reports::add);
+        thread = new Thread(watcher::run);
+        thread.start();
+    }
+
+    private String nextReport() throws InterruptedException {
+        String report = reports.poll(30, TimeUnit.SECONDS);
+        assertThat(report).describedAs("report of the watcher").isNotNull();
+        return report;
+    }
+
+    private ConjureDefinition readOutput() throws IOException {
+        return ConjureCli.OBJECT_MAPPER.readValue(outputFile, ConjureDefinition.class);
+    }
+
+    private void write(String name, String content) throws IOException {
+        Files.write(new File(inputs, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String object(String name) {
+        return ""
+                + "types:\n"
+                + "  definitions:\n"
+                + "    default-package: com.palantir.watch\n"
+                + "    objects:\n"
+                + "      " + name + ":\n"
+                + "        fields:\n"
+                + "          value: string\n";
+    }
+}
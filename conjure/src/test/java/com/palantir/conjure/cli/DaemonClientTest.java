@@ -0,0 +1,55 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class DaemonClientTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void failsWhenDaemonDoesNotRespond() throws IOException {
+        // connections are queued by the server socket without ever being served
+        try (ServerSocket hungDaemon = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Path daemonFile = folder.getRoot().toPath().resolve("conjure.json");
+            ConjureCli.OBJECT_MAPPER.writeValue(
+                    daemonFile.toFile(), DaemonAddress.of(hungDaemon.getLocalPort(), "token"));
+            CliConfiguration config = CliConfiguration.builder()
+                    .inputFiles(ImmutableList.of(new File("src/test/resources/test-service.yml")))
+                    .outputIrFile(new File(folder.getRoot(), "conjureIr.json"))
+                    .build();
+
+            assertThatThrownBy(() -> DaemonClient.compile(daemonFile, config, Duration.ofMillis(100)))
+                    .isInstanceOf(RuntimeException.class)
+                    .hasMessage("Conjure daemon recorded in " + daemonFile + " did not respond within PT0.1S");
+        }
+    }
+}
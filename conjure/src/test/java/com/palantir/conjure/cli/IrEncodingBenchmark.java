@@ -0,0 +1,143 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.ir.ConjureDefinitionReader;
+import com.palantir.conjure.ir.IrEncoding;
+import com.palantir.conjure.ir.TypeTableIr;
+import com.palantir.conjure.spec.ConjureDefinition;
+import com.palantir.conjure.spec.Documentation;
+import com.palantir.conjure.spec.EndpointDefinition;
+import com.palantir.conjure.spec.EndpointName;
+import com.palantir.conjure.spec.FieldDefinition;
+import com.palantir.conjure.spec.FieldName;
+import com.palantir.conjure.spec.HttpMethod;
+import com.palantir.conjure.spec.HttpPath;
+import com.palantir.conjure.spec.ListType;
+import com.palantir.conjure.spec.MapType;
+import com.palantir.conjure.spec.ObjectDefinition;
+import com.palantir.conjure.spec.OptionalType;
+import com.palantir.conjure.spec.PrimitiveType;
+import com.palantir.conjure.spec.ServiceDefinition;
+import com.palantir.conjure.spec.Type;
+import com.palantir.conjure.spec.TypeDefinition;
+import com.palantir.conjure.spec.TypeName;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the size and decode time of the IR of a large synthetic definition in each {@link IrEncoding} and IR
+ * version, with and without gzip. Run with {@code ./gradlew :conjure:irEncodingBenchmark}.
+ */
+public final class IrEncodingBenchmark {
+
+    private static final int TYPES = 5_000;
+    private static final int FIELDS_PER_TYPE = 10;
+    private static final int SERVICES = 200;
+    private static final int ENDPOINTS_PER_SERVICE = 20;
+    private static final int WARMUP_RUNS = 10;
+    private static final int MEASURED_RUNS = 21;
+    private static final List<PrimitiveType> PRIMITIVES = ImmutableList.of(
+            PrimitiveType.STRING, PrimitiveType.INTEGER, PrimitiveType.DOUBLE, PrimitiveType.BOOLEAN,
+            PrimitiveType.SAFELONG, PrimitiveType.DATETIME, PrimitiveType.RID, PrimitiveType.UUID);
+
+    private IrEncodingBenchmark() {}
+
+    public static void main(String[] _args) throws IOException {
+        ConjureDefinition definition = definition();
+        File directory = Files.createTempDirectory("conjure-ir-benchmark").toFile();
+        System.out.println(String.format(
+                Locale.ROOT, "%-6s %-7s %-5s %12s %12s", "format", "version", "gzip", "bytes", "decode ms"));
+        for (IrEncoding encoding : IrEncoding.values()) {
+            for (int irVersion : new int[] {Conjure.SUPPORTED_IR_VERSION, TypeTableIr.VERSION}) {
+                for (boolean gzip : new boolean[] {false, true}) {
+                    File file = new File(directory, encoding + "-v" + irVersion + (gzip ? ".gz" : ""));
+                    IrWriter.write(definition, file, encoding, irVersion, false, gzip);
+                    System.out.println(String.format(Locale.ROOT, "%-6s %-7d %-5s %12d %12.1f",
+                            encoding.name().toLowerCase(Locale.ROOT), irVersion, gzip, file.length(),
+                            medianDecodeMillis(file)));
+                    Files.delete(file.toPath());
+                }
+            }
+        }
+        Files.delete(directory.toPath());
+    }
+
+    private static double medianDecodeMillis(File file) throws IOException {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            ConjureDefinitionReader.read(file);
+        }
+        List<Long> micros = new ArrayList<>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            ConjureDefinitionReader.read(file);
+            micros.add(stopwatch.elapsed(TimeUnit.MICROSECONDS));
+        }
+        micros.sort(Long::compare);
+        return micros.get(MEASURED_RUNS / 2) / 1000.0;
+    }
+
+    private static ConjureDefinition definition() {
+        ConjureDefinition.Builder builder = ConjureDefinition.builder().version(1);
+        for (int i = 0; i < TYPES; i++) {
+            ObjectDefinition.Builder object = ObjectDefinition.builder()
+                    .typeName(typeName(i))
+                    .docs(Documentation.of("Object number " + i + " of the benchmark definition."));
+            for (int j = 0; j < FIELDS_PER_TYPE; j++) {
+                Type type;
+                if (j == 0 && i > 0) {
+                    type = Type.optional(OptionalType.of(Type.reference(typeName(i - 1))));
+                } else if (j == 1) {
+                    // the same few nested types recur throughout real definitions
+                    type = Type.map(MapType.of(Type.primitive(PrimitiveType.STRING),
+                            Type.list(ListType.of(Type.optional(OptionalType.of(Type.reference(typeName(i % 20))))))));
+                } else {
+                    type = Type.primitive(PRIMITIVES.get(j % PRIMITIVES.size()));
+                }
+                object.fields(FieldDefinition.of(FieldName.of("field" + j), type, Documentation.of("Field " + j)));
+            }
+            builder.types(TypeDefinition.object(object.build()));
+        }
+        for (int i = 0; i < SERVICES; i++) {
+            ServiceDefinition.Builder service = ServiceDefinition.builder()
+                    .serviceName(TypeName.of("Service" + i, "com.palantir.benchmark.service"));
+            for (int j = 0; j < ENDPOINTS_PER_SERVICE; j++) {
+                service.endpoints(EndpointDefinition.builder()
+                        .endpointName(EndpointName.of("endpoint" + j))
+                        .httpMethod(HttpMethod.GET)
+                        .httpPath(HttpPath.of("/service" + i + "/endpoint" + j))
+                        .returns(Type.list(ListType.of(
+                                Type.reference(typeName((i * ENDPOINTS_PER_SERVICE + j) % TYPES)))))
+                        .build());
+            }
+            builder.services(service.build());
+        }
+        return builder.build();
+    }
+
+    private static TypeName typeName(int index) {
+        return TypeName.of("Object" + index, "com.palantir.benchmark.types");
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.conjure.defs.Conjure;
+import com.palantir.conjure.ir.ConjureDefinitionReader;
+import com.palantir.conjure.ir.IrEncoding;
+import com.palantir.conjure.ir.TypeTableIr;
+import com.palantir.conjure.spec.ConjureDefinition;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public final class IrWriterTest {
+
+    private static final ConjureDefinition DEFINITION =
+            Conjure.parse(ImmutableList.of(new File("src/test/resources/test-service.yml")));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void prettyOutputIsIdenticalToPrettyPrinter() throws IOException {
+        assertThat(write(DEFINITION, true))
+                .isEqualTo(ConjureCli.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(DEFINITION));
+    }
+
+    @Test
+    public void compactOutputHasNoWhitespace() throws IOException {
+        byte[] compact = write(DEFINITION, false);
+        assertThat(compact).isEqualTo(ConjureCli.OBJECT_MAPPER.writeValueAsBytes(DEFINITION));
+        assertThat(compact.length).isLessThan(write(DEFINITION, true).length);
+        assertThat(ConjureCli.OBJECT_MAPPER.readValue(compact, ConjureDefinition.class)).isEqualTo(DEFINITION);
+    }
+
+    @Test
+    public void writesEmptyDefinitions() throws IOException {
+        ConjureDefinition empty = ConjureDefinition.builder().version(1).build();
+        assertThat(write(empty, true))
+                .isEqualTo(ConjureCli.OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsBytes(empty));
+        assertThat(write(empty, false)).isEqualTo(ConjureCli.OBJECT_MAPPER.writeValueAsBytes(empty));
+    }
+
+    @Test
+    public void roundTripsAllEncodingsAndVersions() throws IOException {
+        for (IrEncoding encoding : IrEncoding.values()) {
+            for (int irVersion : new int[] {Conjure.SUPPORTED_IR_VERSION, TypeTableIr.VERSION}) {
+                for (boolean gzip : new boolean[] {false, true}) {
+                    File file = folder.newFile();
+                    IrWriter.write(DEFINITION, file, encoding, irVersion, false, gzip);
+                    assertThat(ConjureDefinitionReader.read(file))
+                            .describedAs("%s, version: %s, gzip: %s", encoding, irVersion, gzip)
+                            .isEqualTo(DEFINITION);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void typeTableHasEachTypeOnce() throws IOException {
+        File file = folder.newFile();
+        IrWriter.write(DEFINITION, file, IrEncoding.JSON, TypeTableIr.VERSION, false, false);
+        JsonNode typeTable = ConjureCli.OBJECT_MAPPER.readTree(file).get("typeTable");
+        assertThat(typeTable).isNotEmpty();
+        assertThat(ImmutableSet.copyOf(typeTable)).hasSameSizeAs(typeTable);
+    }
+
+    private byte[] write(ConjureDefinition definition, boolean prettyPrint) throws IOException {
+        File file = folder.newFile();
+        IrWriter.write(definition, file, IrEncoding.JSON, Conjure.SUPPORTED_IR_VERSION, prettyPrint, false);
+        return Files.readAllBytes(file.toPath());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2018 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.conjure.cli;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.google.common.collect.ImmutableList;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.SoftAssertions;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Compiles the test definitions of conjure-core, i.e. its top-level YML files and every positive and negative case of
+ * its spec tests, with both the native executable and the JVM, and checks that they agree on the IR or on failing.
+ * Only runs as part of the {@code nativeImageConformanceTest} task, which builds the native executable.
+ */
+public final class NativeImageConformanceTest {
+
+    private static final ObjectMapper YAML_MAPPER = new ObjectMapper(new YAMLFactory());
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File nativeExecutable;
+    private File definitions;
+
+    @Before
+    public void before() {
+        String executableProperty = System.getProperty("conjure.native.executable");
+        Assume.assumeTrue("The native executable is only built by nativeImageConformanceTest",
+                executableProperty != null);
+        nativeExecutable = new File(executableProperty);
+        definitions = new File(System.getProperty("conjure.native.definitions"));
+    }
+
+    @Test
+    public void nativeExecutableCompilesLikeJvm() throws Exception {
+        List<File> inputs = new ArrayList<>();
+        File[] topLevelFiles = definitions.listFiles((_dir, name) -> name.endsWith(".yml"));
+        Arrays.sort(topLevelFiles);
+        inputs.addAll(Arrays.asList(topLevelFiles));
+        File[] specTests = new File(definitions, "spec-tests").listFiles();
+        Arrays.sort(specTests);
+        for (File specTest : specTests) {
+            inputs.addAll(specTestCases(specTest));
+        }
+
+        SoftAssertions softly = new SoftAssertions();
+        for (File input : inputs) {
+            File jvmOutput = new File(folder.getRoot(), "jvm.conjure.json");
+            File nativeOutput = new File(folder.getRoot(), "native.conjure.json");
+            Files.deleteIfExists(jvmOutput.toPath());
+            Files.deleteIfExists(nativeOutput.toPath());
+
+            boolean jvmSucceeded = compileWithJvm(input, jvmOutput);
+            boolean nativeSucceeded = compileWithNativeExecutable(input, nativeOutput);
+            softly.assertThat(nativeSucceeded).describedAs("native executable succeeds on %s", input)
+                    .isEqualTo(jvmSucceeded);
+            if (jvmSucceeded && nativeSucceeded) {
+                softly.assertThat(ConjureCli.OBJECT_MAPPER.readTree(nativeOutput))
+                        .describedAs("IR of %s", input)
+                        .isEqualTo(ConjureCli.OBJECT_MAPPER.readTree(jvmOutput));
+            }
+        }
+        softly.assertAll();
+        assertThat(inputs).isNotEmpty();
+    }
+
+    /** Writes the definition of each positive and negative case of the given spec test to its own file. */
+    private List<File> specTestCases(File specTest) throws IOException {
+        JsonNode testCase = YAML_MAPPER.readTree(specTest);
+        ImmutableList.Builder<File> cases = ImmutableList.builder();
+        for (String kind : ImmutableList.of("positive", "negative")) {
+            Iterator<Map.Entry<String, JsonNode>> entries = testCase.path(kind).fields();
+            while (entries.hasNext()) {
+                Map.Entry<String, JsonNode> entry = entries.next();
+                File file = new File(folder.getRoot(), specTest.getName() + "-" + kind + "-" + entry.getKey() + ".yml");
+                YAML_MAPPER.writeValue(file, entry.getValue().get("conjure"));
+                cases.add(file);
+            }
+        }
+        return cases.build();
+    }
+
+    private static boolean compileWithJvm(File input, File output) {
+        try {
+            ConjureCli.CompileCommand.generate(CliConfiguration.builder()
+                    .inputFiles(ImmutableList.of(input))
+                    .outputIrFile(output)
+                    .build());
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private boolean compileWithNativeExecutable(File input, File output) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                nativeExecutable.getAbsolutePath(), "compile", input.getAbsolutePath(), output.getAbsolutePath())
+                .redirectErrorStream(true)
+                .redirectOutput(new File(folder.getRoot(), "native.log"))
+                .start();
+        assertThat(process.waitFor(1, TimeUnit.MINUTES)).describedAs("native executable exits on %s", input).isTrue();
+        return process.exitValue() == 0;
+    }
+}